@@ -0,0 +1,27 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.api;
+
+import org.bukkit.entity.Player;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A placeholder replacer for replacements that are slow to compute, for example with a database query.
+ * Menus display the last known replacement (or a loading text) and are updated when the new one is available.
+ */
+public interface AsyncPlaceholderReplacer {
+
+	/**
+	 * Called from a separate thread: the Bukkit API should not be used, except its thread-safe methods.
+	 *
+	 * @param player the player viewing the placeholder
+	 * @param argument the argument of the placeholder, or null if not present
+	 * @return a future completed with the replacement, or with null to keep the previous one
+	 */
+	CompletableFuture<String> getReplacement(Player player, String argument);
+
+}
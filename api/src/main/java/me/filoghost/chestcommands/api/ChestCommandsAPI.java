@@ -23,12 +23,59 @@ public class ChestCommandsAPI {
 	 * @return the API version
 	 */
 	public static int getAPIVersion() {
-		return 1;
+		return 4;
 	}
 
 
 	public static void registerPlaceholder(Plugin plugin, String identifier, PlaceholderReplacer placeholderReplacer) {
-		BackendAPI.getImplementation().registerPlaceholder(plugin, identifier, placeholderReplacer);
+		registerPlaceholder(plugin, identifier, placeholderReplacer, 1);
+	}
+
+
+	/**
+	 * Registers a placeholder whose replacement is cached for each player for the given number of ticks.
+	 * Use it for placeholders that are expensive to compute and don't need to be updated on every tick.
+	 *
+	 * @param cacheTicks how many ticks the replacement is reused before calling the replacer again (at least 1)
+	 * @since API version 2
+	 */
+	public static void registerPlaceholder(Plugin plugin, String identifier, PlaceholderReplacer placeholderReplacer, int cacheTicks) {
+		BackendAPI.getImplementation().registerPlaceholder(plugin, identifier, placeholderReplacer, cacheTicks);
+	}
+
+
+	/**
+	 * Registers a placeholder whose replacement is computed asynchronously, without blocking the server.
+	 * Until the first replacement is available, a configurable loading text is displayed.
+	 *
+	 * @param cacheTicks how many ticks the replacement is reused before requesting a new one (at least 1)
+	 * @since API version 3
+	 */
+	public static void registerAsyncPlaceholder(Plugin plugin, String identifier, AsyncPlaceholderReplacer placeholderReplacer, int cacheTicks) {
+		BackendAPI.getImplementation().registerAsyncPlaceholder(plugin, identifier, placeholderReplacer, cacheTicks);
+	}
+
+
+	/**
+	 * The view permissions of icons are cached for each player, until the player opens a menu, clicks an icon,
+	 * joins or changes world. Permissions plugins can call this method to refresh them sooner when the permissions
+	 * of a player change.
+	 *
+	 * @param player the player whose permissions changed
+	 * @since API version 4
+	 */
+	public static void invalidatePermissionCache(Player player) {
+		BackendAPI.getImplementation().invalidatePermissionCache(player);
+	}
+
+
+	/**
+	 * Same as {@link #invalidatePermissionCache(Player)}, for all the players (for example when a group changes).
+	 *
+	 * @since API version 4
+	 */
+	public static void invalidatePermissionCache() {
+		BackendAPI.getImplementation().invalidatePermissionCache();
 	}
 	
 
@@ -5,6 +5,7 @@
  */
 package me.filoghost.chestcommands.api.internal;
 
+import me.filoghost.chestcommands.api.AsyncPlaceholderReplacer;
 import me.filoghost.chestcommands.api.ConfigurableIcon;
 import me.filoghost.chestcommands.api.Menu;
 import me.filoghost.chestcommands.api.PlaceholderReplacer;
@@ -42,6 +43,12 @@ public abstract class BackendAPI {
 
 	public abstract StaticIcon createStaticIcon(ItemStack itemStack);
 
-	public abstract void registerPlaceholder(Plugin plugin, String identifier, PlaceholderReplacer placeholderReplacer);
+	public abstract void registerPlaceholder(Plugin plugin, String identifier, PlaceholderReplacer placeholderReplacer, int cacheTicks);
+
+	public abstract void registerAsyncPlaceholder(Plugin plugin, String identifier, AsyncPlaceholderReplacer placeholderReplacer, int cacheTicks);
+
+	public abstract void invalidatePermissionCache(Player player);
+
+	public abstract void invalidatePermissionCache();
 
 }
@@ -14,17 +14,27 @@ import me.filoghost.chestcommands.hook.BarAPIHook;
 import me.filoghost.chestcommands.hook.BungeeCordHook;
 import me.filoghost.chestcommands.hook.PlaceholderAPIHook;
 import me.filoghost.chestcommands.hook.VaultEconomyHook;
+import me.filoghost.chestcommands.icon.ViewerRenderCache;
+import me.filoghost.chestcommands.icon.skull.BukkitSkullProfileSource;
+import me.filoghost.chestcommands.icon.skull.LocalSkullProfileSource;
+import me.filoghost.chestcommands.icon.skull.SkullProfileCache;
+import me.filoghost.chestcommands.inventory.DefaultMenuView;
 import me.filoghost.chestcommands.legacy.UpgradeExecutorException;
 import me.filoghost.chestcommands.legacy.UpgradesExecutor;
 import me.filoghost.chestcommands.listener.CommandListener;
 import me.filoghost.chestcommands.listener.InventoryListener;
 import me.filoghost.chestcommands.listener.JoinListener;
+import me.filoghost.chestcommands.listener.PermissionListener;
 import me.filoghost.chestcommands.listener.SignListener;
 import me.filoghost.chestcommands.logging.Errors;
 import me.filoghost.chestcommands.logging.PrintableErrorCollector;
+import me.filoghost.chestcommands.menu.InternalMenu;
 import me.filoghost.chestcommands.menu.MenuManager;
 import me.filoghost.chestcommands.parsing.menu.LoadedMenu;
+import me.filoghost.chestcommands.placeholder.AsyncPlaceholderExecutor;
 import me.filoghost.chestcommands.placeholder.PlaceholderManager;
+import me.filoghost.chestcommands.task.MenuRefreshScheduler;
+import me.filoghost.chestcommands.task.PreRenderTask;
 import me.filoghost.chestcommands.task.TickingTask;
 import me.filoghost.commons.BaseJavaPlugin;
 import me.filoghost.commons.CommonsUtil;
@@ -36,12 +46,12 @@ import me.filoghost.updatechecker.UpdateChecker;
 import org.bstats.bukkit.MetricsLite;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 public class ChestCommands extends BaseJavaPlugin {
@@ -55,6 +65,7 @@ public class ChestCommands extends BaseJavaPlugin {
 	private static ConfigManager configManager;
 	private static MenuManager menuManager;
 	private static CustomPlaceholders placeholders;
+	private static PreRenderTask preRenderTask;
 
 	private static ErrorCollector lastLoadErrors;
 	private static String newVersion;
@@ -118,12 +129,15 @@ public class ChestCommands extends BaseJavaPlugin {
 		int pluginID = 3658;
 		new MetricsLite(this, pluginID);
 
+		MenuRefreshScheduler refreshScheduler = new MenuRefreshScheduler();
+
 		Bukkit.getPluginManager().registerEvents(new CommandListener(menuManager), this);
-		Bukkit.getPluginManager().registerEvents(new InventoryListener(menuManager), this);
+		Bukkit.getPluginManager().registerEvents(new InventoryListener(menuManager, refreshScheduler), this);
 		Bukkit.getPluginManager().registerEvents(new JoinListener(), this);
+		Bukkit.getPluginManager().registerEvents(new PermissionListener(), this);
 		Bukkit.getPluginManager().registerEvents(new SignListener(menuManager), this);
 
-		CommandFramework.register(this, new CommandHandler(menuManager, "chestcommands"));
+		CommandFramework.register(this, new CommandHandler(menuManager, refreshScheduler, "chestcommands"));
 
 		ErrorCollector errorCollector = load();
 
@@ -136,17 +150,26 @@ public class ChestCommands extends BaseJavaPlugin {
 			}, 10L);
 		}
 
-		Bukkit.getScheduler().runTaskTimer(this, new TickingTask(), 1L, 1L);
+		Bukkit.getScheduler().runTaskTimer(this, new TickingTask(refreshScheduler), 1L, 1L);
 	}
 
 	@Override
 	public void onDisable() {
 		closeAllMenus();
+		AsyncPlaceholderExecutor.shutdown();
+		SkullProfileCache.shutdown();
 	}
 
 	public static ErrorCollector load() {
 		ErrorCollector errorCollector = new PrintableErrorCollector();
+		if (preRenderTask != null) {
+			// The icons it would render are about to be discarded
+			preRenderTask.cancel();
+			preRenderTask = null;
+		}
 		menuManager.clear();
+		ViewerRenderCache.clearAll();
+		PermissionCache.invalidateAll();
 		boolean isFreshInstall = !Files.isDirectory(configManager.getRootDataFolder());
 		try {
 			Files.createDirectories(configManager.getRootDataFolder());
@@ -168,6 +191,12 @@ public class ChestCommands extends BaseJavaPlugin {
 		}
 
 		configManager.tryLoadSettings(errorCollector);
+		if (Settings.skull_profiles__offline || !Bukkit.getOnlineMode()) {
+			// Offline servers can't look up profiles, skulls are rendered with the owner name only
+			SkullProfileCache.setProfileSource(new LocalSkullProfileSource());
+		} else {
+			SkullProfileCache.setProfileSource(new BukkitSkullProfileSource());
+		}
 		configManager.tryLoadLang(errorCollector);
 		placeholders = configManager.tryLoadCustomPlaceholders(errorCollector);
 		PlaceholderManager.setStaticPlaceholders(placeholders.getPlaceholders());
@@ -179,8 +208,15 @@ public class ChestCommands extends BaseJavaPlugin {
 		}
 
 		List<LoadedMenu> loadedMenus = configManager.tryLoadMenus(errorCollector);
+		List<InternalMenu> menus = new ArrayList<>();
 		for (LoadedMenu loadedMenu : loadedMenus) {
 			menuManager.registerMenu(loadedMenu, errorCollector);
+			menus.add(loadedMenu.getMenu());
+		}
+
+		if (Settings.prerender_icons) {
+			preRenderTask = new PreRenderTask(menus);
+			preRenderTask.start(getPluginInstance());
 		}
 
 		ChestCommands.lastLoadErrors = errorCollector;
@@ -188,10 +224,9 @@ public class ChestCommands extends BaseJavaPlugin {
 	}
 
 	public static void closeAllMenus() {
-		for (Player player : Bukkit.getOnlinePlayers()) {
-			if (MenuManager.getOpenMenuView(player) != null) {
-				player.closeInventory();
-			}
+		// Copy the views, closing the inventory removes them from the open views
+		for (DefaultMenuView menuView : new ArrayList<>(MenuManager.getOpenMenuViews())) {
+			menuView.getViewer().closeInventory();
 		}
 	}
 
@@ -5,6 +5,7 @@
  */
 package me.filoghost.chestcommands;
 
+import me.filoghost.chestcommands.api.AsyncPlaceholderReplacer;
 import me.filoghost.chestcommands.api.ConfigurableIcon;
 import me.filoghost.chestcommands.api.Menu;
 import me.filoghost.chestcommands.api.PlaceholderReplacer;
@@ -61,8 +62,24 @@ public class DefaultBackendAPI extends BackendAPI {
 	}
 
 	@Override
-	public void registerPlaceholder(Plugin plugin, String identifier, PlaceholderReplacer placeholderReplacer) {
-		PlaceholderManager.registerPluginPlaceholder(plugin, identifier, placeholderReplacer);
+	public void registerPlaceholder(Plugin plugin, String identifier, PlaceholderReplacer placeholderReplacer, int cacheTicks) {
+		PlaceholderManager.registerPluginPlaceholder(plugin, identifier, placeholderReplacer, cacheTicks);
+	}
+
+	@Override
+	public void registerAsyncPlaceholder(Plugin plugin, String identifier, AsyncPlaceholderReplacer placeholderReplacer, int cacheTicks) {
+		PlaceholderManager.registerAsyncPluginPlaceholder(plugin, identifier, placeholderReplacer, cacheTicks);
+	}
+
+	@Override
+	public void invalidatePermissionCache(Player player) {
+		Preconditions.notNull(player, "player");
+		PermissionCache.invalidate(player);
+	}
+
+	@Override
+	public void invalidatePermissionCache() {
+		PermissionCache.invalidateAll();
 	}
 
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands;
+
+import me.filoghost.commons.Preconditions;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/*
+ * Permission checks of players, which may be slow depending on the permissions plugin, are remembered until the
+ * permissions of the player are likely to be recalculated (join, world change, menu open, click) or the cache is
+ * invalidated through the API. Only used for the checks repeated on each refresh (view permissions), other checks
+ * are not cached, so that a removed permission can't be used.
+ * Permission nodes are interned to an index into a table of decisions for each player.
+ */
+public class PermissionCache {
+
+	private static final byte UNKNOWN = 0;
+	private static final byte DENIED = 1;
+	private static final byte GRANTED = 2;
+
+	private static final Map<String, Integer> nodeIds = new HashMap<>();
+	private static final Map<Player, byte[]> decisions = new WeakHashMap<>();
+
+	public static int getNodeId(String permission) {
+		Preconditions.notNull(permission, "permission");
+
+		// Permission nodes are case-insensitive
+		return nodeIds.computeIfAbsent(permission.toLowerCase(Locale.ROOT), key -> nodeIds.size());
+	}
+
+	public static boolean hasPermission(Player player, int nodeId, String permission) {
+		byte[] playerDecisions = decisions.get(player);
+		if (playerDecisions == null || playerDecisions.length <= nodeId) {
+			int length = Math.max(nodeId + 1, nodeIds.size());
+			playerDecisions = playerDecisions != null ? Arrays.copyOf(playerDecisions, length) : new byte[length];
+			decisions.put(player, playerDecisions);
+		}
+
+		byte decision = playerDecisions[nodeId];
+		if (decision == UNKNOWN) {
+			decision = player.hasPermission(permission) ? GRANTED : DENIED;
+			playerDecisions[nodeId] = decision;
+		}
+
+		return decision == GRANTED;
+	}
+
+	public static void invalidate(Player player) {
+		decisions.remove(player);
+	}
+
+	public static void invalidateAll() {
+		decisions.clear();
+	}
+
+}
@@ -7,9 +7,19 @@ package me.filoghost.chestcommands.command;
 
 import me.filoghost.chestcommands.ChestCommands;
 import me.filoghost.chestcommands.Permissions;
+import me.filoghost.chestcommands.config.Settings;
+import me.filoghost.chestcommands.inventory.DefaultMenuView;
+import me.filoghost.chestcommands.inventory.SlotUpdateCounters;
 import me.filoghost.chestcommands.menu.InternalMenu;
 import me.filoghost.chestcommands.menu.MenuManager;
+import me.filoghost.chestcommands.parsing.NumberParser;
+import me.filoghost.chestcommands.parsing.ParseException;
+import me.filoghost.chestcommands.placeholder.PlaceholderStats;
+import me.filoghost.chestcommands.task.MenuRefreshScheduler;
+import me.filoghost.chestcommands.task.MenuRefreshScheduler.ScheduledRefresh;
+import me.filoghost.chestcommands.task.RefreshHistogram;
 import me.filoghost.chestcommands.util.Utils;
+import me.filoghost.commons.command.CommandException;
 import me.filoghost.commons.command.CommandFramework;
 import me.filoghost.commons.command.CommandValidate;
 import me.filoghost.commons.logging.ErrorCollector;
@@ -19,13 +29,19 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.command.ConsoleCommandSender;
 import org.bukkit.entity.Player;
 
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
 public class CommandHandler extends CommandFramework {
 	
 	private final MenuManager menuManager;
+	private final MenuRefreshScheduler refreshScheduler;
 	
-	public CommandHandler(MenuManager menuManager, String label) {
+	public CommandHandler(MenuManager menuManager, MenuRefreshScheduler refreshScheduler, String label) {
 		super(label);
 		this.menuManager = menuManager;
+		this.refreshScheduler = refreshScheduler;
 	}
 
 	@SuppressWarnings("deprecation")
@@ -48,6 +64,8 @@ public class CommandHandler extends CommandFramework {
 			sender.sendMessage(ChatColor.WHITE + "/" + label + " errors" + ChatColor.GRAY + " - Displays the last load errors on the console.");
 			sender.sendMessage(ChatColor.WHITE + "/" + label + " list" + ChatColor.GRAY + " - Lists the loaded menus.");
 			sender.sendMessage(ChatColor.WHITE + "/" + label + " open <menu> [player]" + ChatColor.GRAY + " - Opens a menu for a player.");
+			sender.sendMessage(ChatColor.WHITE + "/" + label + " stats [reset]" + ChatColor.GRAY + " - Displays the menu refresh statistics.");
+			sender.sendMessage(ChatColor.WHITE + "/" + label + " placeholders <reset | [time|calls|max|hits] [amount]>" + ChatColor.GRAY + " - Displays the placeholder statistics.");
 			return;
 		}
 
@@ -139,9 +157,148 @@ public class CommandHandler extends CommandFramework {
 			return;
 		}
 
+		if (args[0].equalsIgnoreCase("stats")) {
+			checkCommandPermission(sender, "stats");
+
+			if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+				SlotUpdateCounters.reset();
+				refreshScheduler.resetStatistics();
+				sender.sendMessage(ChestCommands.CHAT_PREFIX + "Statistics reset.");
+				return;
+			}
+
+			long writtenSlots = SlotUpdateCounters.getWrittenSlots();
+			long skippedSlots = SlotUpdateCounters.getSkippedSlots();
+			long totalSlots = writtenSlots + skippedSlots;
+
+			sender.sendMessage(ChestCommands.CHAT_PREFIX + "Refresh statistics:");
+			sender.sendMessage(ChatColor.GRAY + "- " + ChatColor.WHITE + "Open menu views: " + MenuManager.getOpenMenuViews().size()
+					+ " (" + refreshScheduler.getScheduledCount() + " with automatic refresh)");
+			sender.sendMessage(ChatColor.GRAY + "- " + ChatColor.WHITE + "Slot updates: " + writtenSlots + " written, " + skippedSlots + " skipped"
+					+ (totalSlots > 0 ? " (" + (skippedSlots * 100 / totalSlots) + "% skipped)" : ""));
+
+			RefreshHistogram histogram = refreshScheduler.getRefreshHistogram();
+			sender.sendMessage(ChatColor.GRAY + "- " + ChatColor.WHITE + "Refreshes per tick (last " + histogram.getRecordedTicks() + " ticks): "
+					+ String.format("%.2f", histogram.getAverage()) + " average, " + histogram.getMax() + " max");
+
+			StringBuilder distribution = new StringBuilder();
+			int[] ticksPerBucket = histogram.getDistribution();
+			for (int i = 0; i < ticksPerBucket.length; i++) {
+				if (ticksPerBucket[i] > 0) {
+					if (distribution.length() > 0) {
+						distribution.append(ChatColor.GRAY).append(", ");
+					}
+					distribution.append(ChatColor.WHITE).append(RefreshHistogram.getBucketLabel(i))
+							.append(ChatColor.GRAY).append(": ").append(ticksPerBucket[i]).append(" ticks");
+				}
+			}
+			if (distribution.length() > 0) {
+				sender.sendMessage(ChatColor.GRAY + "  " + distribution);
+			}
+
+			sender.sendMessage(ChatColor.GRAY + "- " + ChatColor.WHITE + "Deferred refreshes: " + refreshScheduler.getDeferredCount() + " waiting, "
+					+ refreshScheduler.getTotalDeferredRefreshes() + " total (budget: " + Settings.refresh_tick_budget_nanos + " ns per tick)");
+
+			List<ScheduledRefresh> laggingRefreshes = refreshScheduler.getScheduledRefreshes().stream()
+					.filter(scheduledRefresh -> scheduledRefresh.getLagTicks() > 0)
+					.sorted(Comparator.comparingLong(ScheduledRefresh::getLagTicks).reversed())
+					.limit(5)
+					.collect(Collectors.toList());
+			for (ScheduledRefresh scheduledRefresh : laggingRefreshes) {
+				DefaultMenuView menuView = scheduledRefresh.getMenuView();
+				sender.sendMessage(ChatColor.GRAY + "  " + ChatColor.WHITE + menuView.getViewer().getName()
+						+ ChatColor.GRAY + " (" + ((InternalMenu) menuView.getMenu()).getSourceFile().getFileName() + "): "
+						+ "last refresh " + scheduledRefresh.getLagTicks() + " ticks late, deferred " + scheduledRefresh.getDeferredCount() + " times");
+			}
+			return;
+		}
+
+		if (args[0].equalsIgnoreCase("placeholders")) {
+			checkCommandPermission(sender, "placeholders");
+
+			if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+				PlaceholderStats.resetAll();
+				sender.sendMessage(ChestCommands.CHAT_PREFIX + "Placeholder statistics reset.");
+				return;
+			}
+
+			String sortBy = args.length > 1 ? args[1].toLowerCase() : "time";
+			Comparator<PlaceholderStats> comparator;
+			switch (sortBy) {
+				case "time":
+					comparator = Comparator.comparingLong(PlaceholderStats::getTotalNanos);
+					break;
+				case "calls":
+					comparator = Comparator.comparingLong(PlaceholderStats::getCalls);
+					break;
+				case "max":
+					comparator = Comparator.comparingLong(PlaceholderStats::getMaxNanos);
+					break;
+				case "hits":
+					comparator = Comparator.comparingDouble(PlaceholderStats::getCacheHitRate);
+					break;
+				default:
+					throw new CommandException("Invalid sorting \"" + args[1] + "\", use time, calls, max or hits.");
+			}
+
+			int amount = 5;
+			if (args.length > 2) {
+				try {
+					amount = NumberParser.getStrictlyPositiveInteger(args[2]);
+				} catch (ParseException e) {
+					throw new CommandException("The amount must be a number greater than 0.");
+				}
+			}
+
+			List<PlaceholderStats> topStats = PlaceholderStats.getAll().stream()
+					.filter(stats -> stats.getCalls() > 0)
+					.sorted(comparator.reversed())
+					.limit(amount)
+					.collect(Collectors.toList());
+
+			long windowSeconds = (System.currentTimeMillis() - PlaceholderStats.getWindowStartMillis()) / 1000;
+			sender.sendMessage(ChestCommands.CHAT_PREFIX + "Placeholder statistics (last " + windowSeconds + " seconds, by " + sortBy + "):");
+			if (topStats.isEmpty()) {
+				sender.sendMessage(ChatColor.GRAY + "- " + ChatColor.WHITE + "No placeholders were used.");
+			}
+
+			for (PlaceholderStats stats : topStats) {
+				sender.sendMessage(ChatColor.GRAY + "- " + ChatColor.WHITE + stats.getName() + ChatColor.GRAY + " (" + stats.getPluginName() + "): "
+						+ stats.getCalls() + " calls, " + Math.round(stats.getCacheHitRate() * 100) + "% cache hits, "
+						+ formatNanos(stats.getTotalNanos()) + " total, " + formatNanos(stats.getAverageNanos()) + " average, "
+						+ formatNanos(stats.getMaxNanos()) + " max");
+
+				StringBuilder distribution = new StringBuilder();
+				long[] replacementsPerBucket = stats.getLatencyDistribution();
+				for (int i = 0; i < replacementsPerBucket.length; i++) {
+					if (replacementsPerBucket[i] > 0) {
+						if (distribution.length() > 0) {
+							distribution.append(ChatColor.GRAY).append(", ");
+						}
+						distribution.append(ChatColor.WHITE).append(PlaceholderStats.getLatencyBucketLabel(i))
+								.append(ChatColor.GRAY).append(": ").append(replacementsPerBucket[i]);
+					}
+				}
+				if (distribution.length() > 0) {
+					sender.sendMessage(ChatColor.GRAY + "  " + distribution);
+				}
+			}
+			return;
+		}
+
 		sender.sendMessage(ChatColor.RED + "Unknown sub-command \"" + args[0] + "\".");
 	}
 
+	private static String formatNanos(long nanos) {
+		if (nanos < 1000) {
+			return nanos + "ns";
+		} else if (nanos < 1000000) {
+			return String.format("%.1fµs", nanos / 1000.0);
+		} else {
+			return String.format("%.2fms", nanos / 1000000.0);
+		}
+	}
+
 	private void checkCommandPermission(CommandSender sender, String commandPermission) {
 		CommandValidate.isTrue(sender.hasPermission(Permissions.COMMAND_PREFIX + commandPermission), "You don't have permission.");
 	}
@@ -17,6 +17,24 @@ public class Settings extends MappedConfig {
 	public static String default_color__lore = "&7";
 	public static boolean update_notifications = true;
 	public static int anti_click_spam_delay = 200;
+	public static int refresh_tick_budget_nanos = 10000000;
+	public static int placeholderapi_cache_ticks = 1;
+	public static int render_cache_size = 64;
+	public static boolean prerender_icons = true;
+	public static int prerender_tick_budget_nanos = 2000000;
+	public static int async_placeholders__threads = 2;
+	public static int async_placeholders__queue_size = 200;
+	public static String async_placeholders__loading_text = "&7Loading...";
+	public static int async_placeholders__timeout_seconds = 30;
+	public static boolean placeholder_circuit_breaker__enabled = true;
+	public static int placeholder_circuit_breaker__slow_call_micros = 2000;
+	public static int placeholder_circuit_breaker__slow_calls_threshold = 10;
+	public static int placeholder_circuit_breaker__failures_threshold = 3;
+	public static int placeholder_circuit_breaker__cooldown_ticks = 100;
+	public static int skull_profiles__cache_size = 500;
+	public static int skull_profiles__expire_minutes = 60;
+	public static String skull_profiles__loading_owner = "";
+	public static boolean skull_profiles__offline = false;
 
 	public Settings() {
 		setHeader(
@@ -6,6 +6,8 @@
 package me.filoghost.chestcommands.icon;
 
 import me.filoghost.chestcommands.api.Icon;
+import me.filoghost.chestcommands.icon.skull.SkullProfileCache;
+import me.filoghost.chestcommands.placeholder.PlaceholderDependencies;
 import me.filoghost.chestcommands.placeholder.PlaceholderString;
 import me.filoghost.chestcommands.placeholder.PlaceholderStringList;
 import me.filoghost.chestcommands.util.nbt.parser.MojangsonParseException;
@@ -51,6 +53,14 @@ public abstract class BaseConfigurableIcon implements Icon {
 	private boolean placeholdersEnabled;
 	
 	protected ItemStack cachedRendering; // Cache the rendered item when possible and if state hasn't changed
+	private ItemStack nbtItemStack; // Material, amount, durability and NBT data, parsing NBT data on each rendering is slow
+	private ItemStack baseItemStack; // Everything except name, lore and skull owner, which may depend on the viewer
+	private ItemStack sharedRendering; // Rendering shared by all viewers, when the placeholders don't depend on the viewer
+	private String[] sharedRenderingValues; // Placeholder values used by the shared rendering
+	private int renderingVersion; // Incremented when the cached renderings become invalid, including the ones of ViewerRenderCache
+	private PlaceholderDependencies placeholderDependencies; // Computed lazily, cleared when name, lore or skull owner change
+	private boolean renderedLoadingSkull; // If a rendering used a placeholder head, because the skull profile wasn't ready
+	private int loadingSkullVersion; // Version of SkullProfileCache when the placeholder head was rendered
 
 	public BaseConfigurableIcon(Material material) {
 		this.material = material;
@@ -65,15 +75,61 @@ public abstract class BaseConfigurableIcon implements Icon {
 		}
 	}
 
+	/*
+	 * Icons whose dynamic placeholders are all viewer-independent (for example {online}) are rendered once
+	 * and shared by every viewer, until the placeholder values change.
+	 */
+	protected boolean shouldShareRendering() {
+		return placeholdersEnabled && hasDynamicPlaceholders() && getPlaceholderDependencies().isViewerIndependent();
+	}
+
 	private boolean hasDynamicPlaceholders() {
 		return (name != null && name.hasDynamicPlaceholders())
 				|| (lore != null && lore.hasDynamicPlaceholders())
 				|| (skullOwner != null && skullOwner.hasDynamicPlaceholders());
 	}
 
+	public PlaceholderDependencies getPlaceholderDependencies() {
+		if (placeholderDependencies == null) {
+			PlaceholderDependencies dependencies = PlaceholderDependencies.none();
+			if (placeholdersEnabled) {
+				if (name != null) {
+					dependencies = dependencies.union(name.getDependencies());
+				}
+				if (lore != null) {
+					dependencies = dependencies.union(lore.getDependencies());
+				}
+				if (skullOwner != null) {
+					dependencies = dependencies.union(skullOwner.getDependencies());
+				}
+			}
+			placeholderDependencies = dependencies;
+		}
+
+		return placeholderDependencies;
+	}
+
+	private void clearNBTItemStack() {
+		nbtItemStack = null;
+		clearBaseItemStack();
+	}
+
+	private void clearBaseItemStack() {
+		baseItemStack = null;
+		clearCachedRendering();
+	}
+
+	private void clearCachedRendering() {
+		renderingVersion++;
+		cachedRendering = null;
+		sharedRendering = null;
+		sharedRenderingValues = null;
+		renderedLoadingSkull = false;
+	}
+
 	public void setMaterial(Material material) {
 		this.material = material;
-		cachedRendering = null;
+		clearNBTItemStack();
 	}
 
 	public Material getMaterial() {
@@ -83,7 +139,7 @@ public abstract class BaseConfigurableIcon implements Icon {
 	public void setAmount(int amount) {
 		Preconditions.checkArgument(amount > 0, "amount must be greater than 0");
 		this.amount = Math.min(amount, 127);
-		cachedRendering = null;
+		clearNBTItemStack();
 	}
 
 	public int getAmount() {
@@ -93,7 +149,7 @@ public abstract class BaseConfigurableIcon implements Icon {
 	public void setDurability(short durability) {
 		Preconditions.checkArgument(durability >= 0, "durability must be 0 or greater");
 		this.durability = durability;
-		cachedRendering = null;
+		clearNBTItemStack();
 	}
 
 	public short getDurability() {
@@ -109,7 +165,7 @@ public abstract class BaseConfigurableIcon implements Icon {
 			}
 		}
 		this.nbtData = nbtData;
-		cachedRendering = null;
+		clearNBTItemStack();
 	}
 
 	public String getNBTData() {
@@ -118,7 +174,8 @@ public abstract class BaseConfigurableIcon implements Icon {
 
 	public void setName(String name) {
 		this.name = PlaceholderString.of(name);
-		cachedRendering = null;
+		clearCachedRendering();
+		placeholderDependencies = null;
 	}
 
 	public String getName() {
@@ -141,7 +198,8 @@ public abstract class BaseConfigurableIcon implements Icon {
 		} else {
 			this.lore = null;
 		}
-		cachedRendering = null;
+		clearCachedRendering();
+		placeholderDependencies = null;
 	}
 
 	public List<String> getLore() {
@@ -154,7 +212,7 @@ public abstract class BaseConfigurableIcon implements Icon {
 
 	public void setEnchantments(Map<Enchantment, Integer> enchantments) {
 		this.enchantments = CollectionUtils.copy(enchantments);
-		cachedRendering = null;
+		clearBaseItemStack();
 	}
 
 	public Map<Enchantment, Integer> getEnchantments() {
@@ -170,7 +228,7 @@ public abstract class BaseConfigurableIcon implements Icon {
 			enchantments = new HashMap<>();
 		}
 		enchantments.put(enchantment, level);
-		cachedRendering = null;
+		clearBaseItemStack();
 	}
 
 	public void removeEnchantment(Enchantment enchantment) {
@@ -178,7 +236,7 @@ public abstract class BaseConfigurableIcon implements Icon {
 			return;
 		}
 		enchantments.remove(enchantment);
-		cachedRendering = null;
+		clearBaseItemStack();
 	}
 
 	public Color getLeatherColor() {
@@ -187,7 +245,7 @@ public abstract class BaseConfigurableIcon implements Icon {
 
 	public void setLeatherColor(Color leatherColor) {
 		this.leatherColor = leatherColor;
-		cachedRendering = null;
+		clearBaseItemStack();
 	}
 
 	public String getSkullOwner() {
@@ -200,7 +258,13 @@ public abstract class BaseConfigurableIcon implements Icon {
 
 	public void setSkullOwner(String skullOwner) {
 		this.skullOwner = PlaceholderString.of(skullOwner);
-		cachedRendering = null;
+		clearCachedRendering();
+		placeholderDependencies = null;
+
+		if (this.skullOwner != null && !this.skullOwner.hasDynamicPlaceholders()) {
+			// Resolve the profile in advance, before the icon is displayed
+			SkullProfileCache.preload(this.skullOwner.getValue(null));
+		}
 	}
 
 	public DyeColor getBannerColor() {
@@ -209,7 +273,7 @@ public abstract class BaseConfigurableIcon implements Icon {
 
 	public void setBannerColor(DyeColor bannerColor) {
 		this.bannerColor = bannerColor;
-		cachedRendering = null;
+		clearBaseItemStack();
 	}
 
 	public List<Pattern> getBannerPatterns() {
@@ -218,12 +282,13 @@ public abstract class BaseConfigurableIcon implements Icon {
 
 	public void setBannerPatterns(List<Pattern> bannerPatterns) {
 		this.bannerPatterns = CollectionUtils.copy(bannerPatterns);
-		cachedRendering = null;
+		clearBaseItemStack();
 	}
 
 	public void setPlaceholdersEnabled(boolean placeholdersEnabled) {
 		this.placeholdersEnabled = placeholdersEnabled;
-		cachedRendering = null;
+		clearCachedRendering();
+		placeholderDependencies = null;
 	}
 
 	public String renderName(Player viewer) {
@@ -255,14 +320,97 @@ public abstract class BaseConfigurableIcon implements Icon {
 		return lore.getValue(viewer);
 	}
 
+	/**
+	 * Returns true if the renderings of this icon may use a placeholder head, until the skull profile is ready.
+	 */
+	public boolean hasLoadingSkull() {
+		return renderedLoadingSkull;
+	}
+
+	/**
+	 * Fills the cached rendering in advance if the icon is cacheable, returns false if there was nothing to render.
+	 */
+	public boolean preRender() {
+		if (!shouldCacheRendering() || cachedRendering != null) {
+			return false;
+		}
+
+		// The rendering of cacheable icons doesn't depend on the viewer
+		cachedRendering = createItemStack(null);
+		return true;
+	}
+
 	@Override
-	@SuppressWarnings("deprecation")
 	public ItemStack render(Player viewer) {
-		if (shouldCacheRendering() && cachedRendering != null) {
+		if (renderedLoadingSkull && loadingSkullVersion != SkullProfileCache.getVersion()) {
+			// Some skull profiles became ready, the placeholder head may be replaced
+			clearCachedRendering();
+		}
+
+		if (shouldCacheRendering()) {
+			if (cachedRendering == null) {
+				cachedRendering = createItemStack(viewer);
+			}
 			// Performance: return a cached item
 			return cachedRendering;
 		}
 
+		if (shouldShareRendering()) {
+			String[] placeholderValues = getPlaceholderDependencies().resolveValues(viewer);
+			if (sharedRendering == null || !Arrays.equals(placeholderValues, sharedRenderingValues)) {
+				sharedRendering = createItemStack(viewer);
+				sharedRenderingValues = placeholderValues;
+			}
+			return sharedRendering;
+		}
+
+		PlaceholderDependencies dependencies = getPlaceholderDependencies();
+		if (dependencies.isTracked()) {
+			// Most of the times the values are the same as the last rendering for the same viewer
+			String[] placeholderValues = dependencies.resolveValues(viewer);
+			ItemStack itemStack = ViewerRenderCache.get(viewer, this, renderingVersion, placeholderValues);
+			if (itemStack == null) {
+				itemStack = createItemStack(viewer);
+				ViewerRenderCache.put(viewer, this, renderingVersion, placeholderValues, itemStack);
+			}
+			return itemStack;
+		}
+
+		return createItemStack(viewer);
+	}
+
+	private ItemStack createItemStack(Player viewer) {
+		if (baseItemStack == null) {
+			baseItemStack = createBaseItemStack();
+		}
+
+		// Only the parts that may depend on the viewer are applied to a copy of the base item
+		ItemStack itemStack = baseItemStack.clone();
+		ItemMeta itemMeta = itemStack.getItemMeta();
+
+		if (itemMeta != null) {
+			itemMeta.setDisplayName(renderName(viewer));
+			itemMeta.setLore(renderLore(viewer));
+
+			if (skullOwner != null && itemMeta instanceof SkullMeta) {
+				String skullOwner = this.skullOwner.getValue(viewer);
+				if (!SkullProfileCache.requestProfile(skullOwner)) {
+					// Setting an owner without a resolved profile would block the main thread
+					skullOwner = SkullProfileCache.getLoadingOwner();
+					renderedLoadingSkull = true;
+					loadingSkullVersion = SkullProfileCache.getVersion();
+				}
+				((SkullMeta) itemMeta).setOwner(skullOwner);
+			}
+
+			itemStack.setItemMeta(itemMeta);
+		}
+
+		return itemStack;
+	}
+
+	@SuppressWarnings("deprecation")
+	private ItemStack createNBTItemStack() {
 		ItemStack itemStack = new ItemStack(material, amount, durability);
 
 		// First try to apply NBT data
@@ -276,22 +424,23 @@ public abstract class BaseConfigurableIcon implements Icon {
 			}
 		}
 
+		return itemStack;
+	}
+
+	private ItemStack createBaseItemStack() {
+		if (nbtItemStack == null) {
+			nbtItemStack = createNBTItemStack();
+		}
+
 		// Then apply data from config nodes, overwriting NBT data if there are conflicting values
+		ItemStack itemStack = nbtItemStack.clone();
 		ItemMeta itemMeta = itemStack.getItemMeta();
 
 		if (itemMeta != null) {
-			itemMeta.setDisplayName(renderName(viewer));
-			itemMeta.setLore(renderLore(viewer));
-
 			if (leatherColor != null && itemMeta instanceof LeatherArmorMeta) {
 				((LeatherArmorMeta) itemMeta).setColor(leatherColor);
 			}
 
-			if (skullOwner != null && itemMeta instanceof SkullMeta) {
-				String skullOwner = this.skullOwner.getValue(viewer);
-				((SkullMeta) itemMeta).setOwner(skullOwner);
-			}
-
 			if (itemMeta instanceof BannerMeta) {
 				BannerMeta bannerMeta = (BannerMeta) itemMeta;
 				if (bannerColor != null) {
@@ -314,11 +463,6 @@ public abstract class BaseConfigurableIcon implements Icon {
 			enchantments.forEach(itemStack::addUnsafeEnchantment);
 		}
 
-
-		if (shouldCacheRendering()) {
-			cachedRendering = itemStack;
-		}
-
 		return itemStack;
 	}
 
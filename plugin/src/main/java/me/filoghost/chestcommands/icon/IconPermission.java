@@ -5,12 +5,14 @@
  */
 package me.filoghost.chestcommands.icon;
 
+import me.filoghost.chestcommands.PermissionCache;
 import me.filoghost.commons.Strings;
 import org.bukkit.entity.Player;
 
 public class IconPermission {
 	
 	private final String permission;
+	private final int permissionId;
 	private final boolean negated;
 
 	public IconPermission(String permission) {
@@ -30,17 +32,23 @@ public class IconPermission {
 				negated = false;
 			}
 		}
+
+		this.permissionId = this.permission != null ? PermissionCache.getNodeId(this.permission) : -1;
 	}
 	
-	private boolean hasPermission(Player player) {
+	private boolean hasPermission(Player player, boolean useCache) {
 		if (isEmpty()) {
 			return true;
 		}
 
+		boolean hasPermission = useCache
+				? PermissionCache.hasPermission(player, permissionId, permission)
+				: player.hasPermission(permission);
+
 		if (negated) {
-			return !player.hasPermission(permission);
+			return !hasPermission;
 		} else {
-			return player.hasPermission(permission);
+			return hasPermission;
 		}
 	}
 
@@ -48,8 +56,17 @@ public class IconPermission {
 		return this.permission == null;
 	}
 
+	/**
+	 * Uses the cached permission decisions, for the checks repeated on each refresh.
+	 */
 	public static boolean hasPermission(Player player, IconPermission permission) {
-		return permission == null || permission.hasPermission(player);
+		return permission == null || permission.hasPermission(player, true);
 	}
 
+	/**
+	 * Bypasses the cached permission decisions, for the checks that grant something (for example clicks).
+	 */
+	public static boolean hasCurrentPermission(Player player, IconPermission permission) {
+		return permission == null || permission.hasPermission(player, false);
+	}
 }
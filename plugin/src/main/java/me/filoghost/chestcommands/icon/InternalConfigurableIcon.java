@@ -44,6 +44,7 @@ public class InternalConfigurableIcon extends BaseConfigurableIcon implements Re
 		this.clickResult = ClickResult.CLOSE;
 	}
 
+	@Override
 	public boolean canViewIcon(Player player) {
 		return IconPermission.hasPermission(player, viewPermission);
 	}
@@ -95,6 +96,7 @@ public class InternalConfigurableIcon extends BaseConfigurableIcon implements Re
 	
 	@Override
 	public ItemStack render(Player viewer) {
+		// The view permission only decides if the icon is hidden, the cached rendering is the same for all the viewers
 		if (canViewIcon(viewer)) {
 			return super.render(viewer);
 		} else {
@@ -102,11 +104,6 @@ public class InternalConfigurableIcon extends BaseConfigurableIcon implements Re
 		}
 	}
 
-	@Override
-	protected boolean shouldCacheRendering() {
-		return super.shouldCacheRendering() && !hasViewPermission();
-	}
-
 
 	public void setClickResult(ClickResult clickResult) {
 		Preconditions.notNull(clickResult, "clickResult");
@@ -115,11 +112,11 @@ public class InternalConfigurableIcon extends BaseConfigurableIcon implements Re
 
 	@Override
 	public ClickResult onClick(MenuView menuView, Player player) {
-		if (!IconPermission.hasPermission(player, viewPermission)) {
+		if (!IconPermission.hasCurrentPermission(player, viewPermission)) {
 			return ClickResult.KEEP_OPEN;
 		}
 
-		if (!IconPermission.hasPermission(player, clickPermission)) {
+		if (!IconPermission.hasCurrentPermission(player, clickPermission)) {
 			if (noClickPermissionMessage != null) {
 				player.sendMessage(noClickPermissionMessage);
 			} else {
@@ -165,25 +162,34 @@ public class InternalConfigurableIcon extends BaseConfigurableIcon implements Re
 	}
 
 	@Override
-	public ItemStack updateRendering(Player viewer, ItemStack currentRendering) {
-		if (currentRendering != null && shouldCacheRendering()) {
-			// Internal icons do not change, no need to update if the item is already rendered
-			return currentRendering;
-		}
-
+	public ItemStack updateRendering(Player viewer, ItemStack currentRendering, RenderedText renderedText) {
 		if (!canViewIcon(viewer)) {
 			// Hide the current item
+			renderedText.clear();
 			return null;
 		}
 
-		if (currentRendering == null) {
-			// Render item normally
+		if (currentRendering != null && shouldCacheRendering()) {
+			// Internal icons do not change, no need to update if the item is already rendered
+			return currentRendering;
+		}
+
+		if (currentRendering == null || shouldShareRendering()) {
+			// Render item normally, icons that don't depend on the viewer reuse the same rendering
+			renderedText.clear();
 			return render(viewer);
 		} else {
 			// Internal icons are loaded and then never change, we can safely update only name and lore (for performance)
+			String name = renderName(viewer);
+			List<String> lore = renderLore(viewer);
+			if (!renderedText.update(name, lore)) {
+				// Avoid copying the item meta twice if the text didn't change
+				return currentRendering;
+			}
+
 			ItemMeta meta = currentRendering.getItemMeta();
-			meta.setDisplayName(renderName(viewer));
-			meta.setLore(renderLore(viewer));
+			meta.setDisplayName(name);
+			meta.setLore(lore);
 			currentRendering.setItemMeta(meta);
 			return currentRendering;
 		}
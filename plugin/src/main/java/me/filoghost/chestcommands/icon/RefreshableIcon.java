@@ -5,11 +5,24 @@
  */
 package me.filoghost.chestcommands.icon;
 
+import me.filoghost.chestcommands.placeholder.PlaceholderDependencies;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
 public interface RefreshableIcon {
 	
-	ItemStack updateRendering(Player viewer, ItemStack currentRendering);
+	/**
+	 * Returns the updated rendering, which may be the current rendering modified in place.
+	 * The rendered text is updated with the name and lore of the returned item, or cleared if unknown.
+	 */
+	ItemStack updateRendering(Player viewer, ItemStack currentRendering, RenderedText renderedText);
+
+	boolean canViewIcon(Player viewer);
+
+	/**
+	 * Returns the placeholders that the rendering depends on. If their values didn't change
+	 * since the current rendering was produced, the rendering doesn't need to be updated.
+	 */
+	PlaceholderDependencies getPlaceholderDependencies();
 	
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.icon;
+
+import java.util.List;
+import java.util.Objects;
+
+/*
+ * Name and lore of the item currently displayed in a slot, to detect when they don't need to be updated.
+ */
+public class RenderedText {
+
+	private boolean known;
+	private String name;
+	private List<String> lore;
+
+	/**
+	 * Returns true and remembers the new values if they are different from the displayed ones.
+	 */
+	public boolean update(String name, List<String> lore) {
+		// The lore list is usually the same instance if unchanged
+		if (known && Objects.equals(this.name, name) && (this.lore == lore || Objects.equals(this.lore, lore))) {
+			return false;
+		}
+
+		this.known = true;
+		this.name = name;
+		this.lore = lore;
+		return true;
+	}
+
+	public void clear() {
+		known = false;
+		name = null;
+		lore = null;
+	}
+
+}
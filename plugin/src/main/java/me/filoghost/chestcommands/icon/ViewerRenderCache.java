@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.icon;
+
+import me.filoghost.chestcommands.config.Settings;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Last rendering of each icon for each player, reused while the placeholder values it was rendered with don't change.
+ * Each player keeps only the most recently used icons, and the entries are removed on quit.
+ */
+public class ViewerRenderCache {
+
+	private static final Map<Player, Map<BaseConfigurableIcon, CachedRendering>> renderingsByViewer = new HashMap<>();
+
+	public static ItemStack get(Player viewer, BaseConfigurableIcon icon, int iconVersion, String[] placeholderValues) {
+		Map<BaseConfigurableIcon, CachedRendering> renderings = renderingsByViewer.get(viewer);
+		if (renderings == null) {
+			return null;
+		}
+
+		CachedRendering cachedRendering = renderings.get(icon);
+		if (cachedRendering == null
+				|| cachedRendering.iconVersion != iconVersion
+				|| cachedRendering.valuesHash != Arrays.hashCode(placeholderValues)
+				|| !Arrays.equals(cachedRendering.placeholderValues, placeholderValues)) {
+			return null;
+		}
+
+		return cachedRendering.itemStack;
+	}
+
+	public static void put(Player viewer, BaseConfigurableIcon icon, int iconVersion, String[] placeholderValues, ItemStack itemStack) {
+		int maxSize = Settings.render_cache_size;
+		if (maxSize <= 0) {
+			return;
+		}
+
+		renderingsByViewer
+				.computeIfAbsent(viewer, key -> new LinkedHashMap<BaseConfigurableIcon, CachedRendering>(16, 0.75f, true) {
+					@Override
+					protected boolean removeEldestEntry(Map.Entry<BaseConfigurableIcon, CachedRendering> eldest) {
+						return size() > Settings.render_cache_size;
+					}
+				})
+				.put(icon, new CachedRendering(iconVersion, placeholderValues, itemStack));
+	}
+
+	public static void clear(Player viewer) {
+		renderingsByViewer.remove(viewer);
+	}
+
+	public static void clearAll() {
+		renderingsByViewer.clear();
+	}
+
+
+	private static class CachedRendering {
+
+		private final int iconVersion;
+		private final String[] placeholderValues;
+		private final int valuesHash;
+		private final ItemStack itemStack;
+
+		private CachedRendering(int iconVersion, String[] placeholderValues, ItemStack itemStack) {
+			this.iconVersion = iconVersion;
+			this.placeholderValues = placeholderValues;
+			this.valuesHash = Arrays.hashCode(placeholderValues);
+			this.itemStack = itemStack;
+		}
+
+	}
+
+}
@@ -0,0 +1,21 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.icon.skull;
+
+import org.bukkit.Bukkit;
+
+/*
+ * Looks up the profile through the server, which stores it in its own user cache for the following skull renders.
+ */
+public class BukkitSkullProfileSource implements SkullProfileSource {
+
+	@Override
+	@SuppressWarnings("deprecation")
+	public void resolve(String ownerName) {
+		Bukkit.getOfflinePlayer(ownerName);
+	}
+
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.icon.skull;
+
+/*
+ * Stand-in for offline servers: there is nothing to look up, the owner name is used as it is.
+ */
+public class LocalSkullProfileSource implements SkullProfileSource {
+
+	@Override
+	public void resolve(String ownerName) {
+		// Nothing to resolve
+	}
+
+	@Override
+	public boolean isImmediate() {
+		return true;
+	}
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.icon.skull;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import me.filoghost.chestcommands.ChestCommands;
+import me.filoghost.chestcommands.config.Settings;
+import me.filoghost.chestcommands.inventory.DefaultMenuView;
+import me.filoghost.commons.logging.Log;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/*
+ * Skull owners whose profile was resolved in the background. Until the profile of an owner is ready, skulls are rendered
+ * with a placeholder head, and the views displaying it are refreshed when profiles become ready.
+ * Used only from the main thread, except for the profile source.
+ */
+public class SkullProfileCache {
+
+	private static final Pattern VALID_OWNER_NAME = Pattern.compile("[a-zA-Z0-9_]{1,16}");
+
+	private static final Map<String, CachedProfile> profiles = new LinkedHashMap<String, CachedProfile>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedProfile> eldest) {
+			return size() > Math.max(1, Settings.skull_profiles__cache_size);
+		}
+	};
+
+	private static SkullProfileSource profileSource = new LocalSkullProfileSource();
+	private static ThreadPoolExecutor executor;
+	private static int version; // Incremented when a profile becomes ready
+	private static final Set<DefaultMenuView> waitingViews = Collections.newSetFromMap(new WeakHashMap<>()); // Views displaying a placeholder head
+
+	public static void setProfileSource(SkullProfileSource profileSource) {
+		SkullProfileCache.profileSource = profileSource;
+	}
+
+	/**
+	 * Returns true if the skull can be rendered with the given owner, otherwise starts resolving its profile.
+	 */
+	public static boolean requestProfile(String ownerName) {
+		if (ownerName == null || !VALID_OWNER_NAME.matcher(ownerName).matches()) {
+			// Not a player name, nothing to resolve
+			return true;
+		}
+
+		SkullProfileSource profileSource = SkullProfileCache.profileSource;
+		if (profileSource.isImmediate()) {
+			// Nothing to look up in the background
+			return true;
+		}
+
+		String key = ownerName.toLowerCase(Locale.ROOT);
+		CachedProfile profile = profiles.get(key);
+		if (profile == null) {
+			profile = new CachedProfile();
+			profiles.put(key, profile);
+		}
+
+		if (!profile.pending && (!profile.ready || System.currentTimeMillis() > profile.expirationMillis)) {
+			// Expired profiles are still used while resolving them again
+			startLookup(ownerName, profile, profileSource);
+		}
+
+		return profile.ready;
+	}
+
+	public static void preload(String ownerName) {
+		requestProfile(ownerName);
+	}
+
+	private static void startLookup(String ownerName, CachedProfile profile, SkullProfileSource profileSource) {
+		if (executor == null) {
+			executor = new ThreadPoolExecutor(
+					2, 2,
+					60, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<>(500),
+					new ThreadFactoryBuilder().setNameFormat("ChestCommands skull profile #%d").setDaemon(true).build());
+			executor.allowCoreThreadTimeOut(true);
+		}
+
+		profile.pending = true;
+
+		try {
+			executor.execute(() -> {
+				Throwable error = null;
+				try {
+					profileSource.resolve(ownerName);
+				} catch (Throwable t) {
+					error = t;
+				}
+
+				Throwable lookupError = error;
+				Plugin plugin = ChestCommands.getPluginInstance();
+				if (plugin.isEnabled()) {
+					Bukkit.getScheduler().runTask(plugin, () -> onLookupComplete(ownerName, profile, lookupError));
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// Too many lookups, try again on the next render
+			profile.pending = false;
+		}
+	}
+
+	private static void onLookupComplete(String ownerName, CachedProfile profile, Throwable error) {
+		if (error != null) {
+			// Render the skull anyway, as it was done before resolving profiles in the background
+			Log.warning("Could not resolve the skull profile of " + ownerName + ".", error);
+		}
+
+		boolean wasReady = profile.ready;
+		profile.pending = false;
+		profile.ready = true;
+		profile.expirationMillis = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(Math.max(1, Settings.skull_profiles__expire_minutes));
+
+		if (!wasReady) {
+			// The views waiting for profiles are refreshed by the menu refresh scheduler
+			version++;
+		}
+	}
+
+	public static void addWaitingView(DefaultMenuView menuView) {
+		waitingViews.add(menuView);
+	}
+
+	/**
+	 * Returns and forgets the views that displayed a placeholder head, they register again if still waiting after a refresh.
+	 */
+	public static List<DefaultMenuView> pollWaitingViews() {
+		List<DefaultMenuView> menuViews = new ArrayList<>(waitingViews);
+		waitingViews.clear();
+		return menuViews;
+	}
+
+	/**
+	 * Returns a number that changes every time a profile becomes ready, to detect placeholder heads to render again.
+	 */
+	public static int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns the owner of the placeholder head, or null for the default head.
+	 */
+	public static String getLoadingOwner() {
+		String loadingOwner = Settings.skull_profiles__loading_owner;
+		if (loadingOwner == null || loadingOwner.isEmpty()) {
+			return null;
+		}
+
+		// The placeholder head has its own profile to resolve
+		return requestProfile(loadingOwner) ? loadingOwner : null;
+	}
+
+	public static void shutdown() {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+
+
+	private static class CachedProfile {
+
+		private boolean ready;
+		private boolean pending;
+		private long expirationMillis;
+
+	}
+
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.icon.skull;
+
+/*
+ * Resolves the profile (and textures) of a skull owner, so that setting it on a skull doesn't block the main thread.
+ */
+public interface SkullProfileSource {
+
+	/**
+	 * Called from a separate thread, may block.
+	 */
+	void resolve(String ownerName) throws Exception;
+
+	/**
+	 * Returns true if there is nothing to resolve, skulls can be rendered without waiting.
+	 */
+	default boolean isImmediate() {
+		return false;
+	}
+
+}
@@ -7,11 +7,18 @@ package me.filoghost.chestcommands.inventory;
 
 import me.filoghost.chestcommands.api.Icon;
 import me.filoghost.chestcommands.api.MenuView;
+import me.filoghost.chestcommands.icon.BaseConfigurableIcon;
 import me.filoghost.chestcommands.icon.RefreshableIcon;
+import me.filoghost.chestcommands.icon.RenderedText;
+import me.filoghost.chestcommands.icon.skull.SkullProfileCache;
 import me.filoghost.chestcommands.menu.BaseMenu;
+import me.filoghost.chestcommands.placeholder.PlaceholderDependencies;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 /**
  * Represents a particular view of a menu.
  */
@@ -20,28 +27,98 @@ public class DefaultMenuView implements MenuView {
 	private final BaseMenu menu;
 	private final InventoryGrid bukkitInventory;
 	private final Player viewer;
+	private final ItemStack[] pushedItems; // Copy of the last item written to each slot of the Bukkit inventory
+	private final String[][] renderedPlaceholderValues; // Placeholder values used by the current rendering of each slot
+	private final RenderedText[] renderedTexts; // Name and lore of the item in each slot, created when first needed
+	private final boolean[] loadingSkullSlots; // Slots that may display a placeholder head instead of the skull owner
 
 	public DefaultMenuView(BaseMenu menu, Player viewer) {
 		this.menu = menu;
 		this.viewer = viewer;
 		this.bukkitInventory = new InventoryGrid(new MenuInventoryHolder(this), menu.getRowCount(), menu.getTitle());
+		this.pushedItems = new ItemStack[bukkitInventory.getSize()];
+		this.renderedPlaceholderValues = new String[bukkitInventory.getSize()][];
+		this.renderedTexts = new RenderedText[bukkitInventory.getSize()];
+		this.loadingSkullSlots = new boolean[bukkitInventory.getSize()];
 		refresh();
 	}
 
 	@Override
 	public void refresh() {
 		for (int i = 0; i < menu.getIcons().getSize(); i++) {
-			Icon icon = menu.getIcons().getByIndex(i);
-
-			if (icon == null) {
-				bukkitInventory.setByIndex(i, null);
-			} else if (icon instanceof RefreshableIcon) {
-				ItemStack newItemStack = ((RefreshableIcon) icon).updateRendering(viewer, bukkitInventory.getByIndex(i));
-				bukkitInventory.setByIndex(i, newItemStack);
-			} else {
-				bukkitInventory.setByIndex(i, icon.render(viewer));
+			refreshSlot(i, false);
+		}
+	}
+
+	/**
+	 * Renders again the slots that display a placeholder head, after some skull profiles became ready.
+	 */
+	public void refreshLoadingSkulls() {
+		for (int i = 0; i < loadingSkullSlots.length; i++) {
+			if (loadingSkullSlots[i]) {
+				refreshSlot(i, true);
+			}
+		}
+	}
+
+	private void refreshSlot(int slot, boolean force) {
+		Icon icon = menu.getIcons().getByIndex(slot);
+
+		if (icon instanceof RefreshableIcon) {
+			refreshIcon(slot, (RefreshableIcon) icon, force);
+		} else {
+			renderedPlaceholderValues[slot] = null;
+			renderedTexts[slot] = null;
+			updateSlot(slot, icon != null ? icon.render(viewer) : null);
+		}
+
+		// The icon may have rendered a placeholder head, while the skull profile is being resolved
+		loadingSkullSlots[slot] = icon instanceof BaseConfigurableIcon && ((BaseConfigurableIcon) icon).hasLoadingSkull();
+		if (loadingSkullSlots[slot]) {
+			SkullProfileCache.addWaitingView(this);
+		}
+	}
+
+	private void refreshIcon(int slot, RefreshableIcon icon, boolean force) {
+		// Without the current rendering the icon is rendered again instead of being updated in place
+		ItemStack currentRendering = force ? null : bukkitInventory.getByIndex(slot);
+		PlaceholderDependencies dependencies = icon.getPlaceholderDependencies();
+		String[] placeholderValues = null;
+
+		if (dependencies.isTracked()) {
+			placeholderValues = dependencies.resolveValues(viewer);
+
+			if (currentRendering != null
+					&& Arrays.equals(placeholderValues, renderedPlaceholderValues[slot])
+					&& icon.canViewIcon(viewer)) {
+				// Nothing the current rendering depends on has changed
+				SlotUpdateCounters.recordSkipped();
+				return;
 			}
 		}
+
+		RenderedText renderedText = renderedTexts[slot];
+		if (renderedText == null) {
+			renderedText = new RenderedText();
+			renderedTexts[slot] = renderedText;
+		}
+
+		updateSlot(slot, icon.updateRendering(viewer, currentRendering, renderedText));
+		renderedPlaceholderValues[slot] = placeholderValues;
+	}
+
+	private void updateSlot(int slot, ItemStack itemStack) {
+		// Each write sends a slot update to the client, skip it if the item didn't change
+		if (Objects.equals(pushedItems[slot], itemStack)) {
+			SlotUpdateCounters.recordSkipped();
+			return;
+		}
+
+		bukkitInventory.setByIndex(slot, itemStack);
+
+		// Store a copy, the rendered item may be modified in place by the next refresh
+		pushedItems[slot] = itemStack != null ? itemStack.clone() : null;
+		SlotUpdateCounters.recordWritten();
 	}
 
 	public void open(Player viewer) {
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.inventory;
+
+public class SlotUpdateCounters {
+
+	private static long writtenSlots;
+	private static long skippedSlots;
+
+	public static void recordWritten() {
+		writtenSlots++;
+	}
+
+	public static void recordSkipped() {
+		skippedSlots++;
+	}
+
+	public static long getWrittenSlots() {
+		return writtenSlots;
+	}
+
+	public static long getSkippedSlots() {
+		return skippedSlots;
+	}
+
+	public static void reset() {
+		writtenSlots = 0;
+		skippedSlots = 0;
+	}
+
+}
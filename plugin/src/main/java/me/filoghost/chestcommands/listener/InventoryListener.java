@@ -6,11 +6,15 @@
 package me.filoghost.chestcommands.listener;
 
 import me.filoghost.chestcommands.ChestCommands;
+import me.filoghost.chestcommands.PermissionCache;
 import me.filoghost.chestcommands.api.ClickResult;
 import me.filoghost.chestcommands.api.Icon;
 import me.filoghost.chestcommands.config.Settings;
+import me.filoghost.chestcommands.icon.ViewerRenderCache;
 import me.filoghost.chestcommands.inventory.DefaultMenuView;
 import me.filoghost.chestcommands.menu.MenuManager;
+import me.filoghost.chestcommands.placeholder.PlaceholderManager;
+import me.filoghost.chestcommands.task.MenuRefreshScheduler;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -18,7 +22,11 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.Inventory;
 
 import java.util.Map;
@@ -27,10 +35,12 @@ import java.util.WeakHashMap;
 public class InventoryListener implements Listener {
 
 	private final MenuManager menuManager;
+	private final MenuRefreshScheduler refreshScheduler;
 	private final Map<Player, Long> antiClickSpam;
 
-	public InventoryListener(MenuManager menuManager) {
+	public InventoryListener(MenuManager menuManager, MenuRefreshScheduler refreshScheduler) {
 		this.menuManager = menuManager;
+		this.refreshScheduler = refreshScheduler;
 		this.antiClickSpam = new WeakHashMap<>();
 	}
 	
@@ -50,6 +60,22 @@ public class InventoryListener implements Listener {
 		}
 	}
 
+	@EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = false)
+	public void onInventoryDrag(InventoryDragEvent event) {
+		Inventory inventory = event.getInventory();
+		if (!MenuManager.isMenuInventory(inventory)) {
+			return;
+		}
+
+		// Refreshes don't overwrite slots that are expected to be empty, items must not be dragged into the menu
+		for (int slot : event.getRawSlots()) {
+			if (slot < inventory.getSize()) {
+				event.setCancelled(true);
+				return;
+			}
+		}
+	}
+
 	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = false)
 	public void onLateInventoryClick(InventoryClickEvent event) {
 	    Inventory inventory = event.getInventory();
@@ -84,10 +110,49 @@ public class InventoryListener implements Listener {
 		Bukkit.getScheduler().runTask(ChestCommands.getPluginInstance(), () -> {
 			ClickResult result = icon.onClick(menuView, clicker);
 
+			// The click may have changed the values of placeholders cached for more than one tick (e.g. money)
+			PlaceholderManager.clearCachedReplacements(clicker);
+
+			// The click may also have changed permissions, for example with a command adding the player to a group
+			PermissionCache.invalidate(clicker);
+
 			if (result == ClickResult.CLOSE) {
 				clicker.closeInventory();
 			}
 		});
 	}
 
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onInventoryOpen(InventoryOpenEvent event) {
+		DefaultMenuView menuView = MenuManager.getOpenMenuView(event.getInventory());
+		if (menuView != null) {
+			menuManager.registerOpenMenuView(menuView);
+			refreshScheduler.schedule(menuView);
+		}
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onInventoryClose(InventoryCloseEvent event) {
+		DefaultMenuView menuView = MenuManager.getOpenMenuView(event.getInventory());
+		if (menuView != null) {
+			closeMenuView(menuView);
+		}
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onQuit(PlayerQuitEvent event) {
+		// The close event is usually fired on quit, but don't rely on it to avoid leaking views
+		DefaultMenuView menuView = MenuManager.getOpenMenuView(event.getPlayer());
+		if (menuView != null) {
+			closeMenuView(menuView);
+		}
+
+		ViewerRenderCache.clear(event.getPlayer());
+	}
+
+	private void closeMenuView(DefaultMenuView menuView) {
+		menuManager.unregisterOpenMenuView(menuView);
+		refreshScheduler.cancel(menuView);
+	}
+
 }
@@ -8,6 +8,7 @@ package me.filoghost.chestcommands.listener;
 import me.filoghost.chestcommands.ChestCommands;
 import me.filoghost.chestcommands.Permissions;
 import me.filoghost.chestcommands.config.Settings;
+import me.filoghost.chestcommands.icon.skull.SkullProfileCache;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -20,6 +21,9 @@ public class JoinListener implements Listener {
 	public void onJoin(PlayerJoinEvent event) {
 		Player player = event.getPlayer();
 
+		// Heads with the owner "{player}" are likely to be shown soon
+		SkullProfileCache.preload(player.getName());
+
 		if (ChestCommands.getLastLoadErrors().hasErrors() && player.hasPermission(Permissions.SEE_ERRORS)) {
 			player.sendMessage(
 					ChestCommands.CHAT_PREFIX + ChatColor.RED + "The plugin found " + ChestCommands.getLastLoadErrors().getErrorsCount()
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.listener;
+
+import me.filoghost.chestcommands.PermissionCache;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/*
+ * Permissions are usually recalculated when a player joins or changes world, discard the cached checks.
+ */
+public class PermissionListener implements Listener {
+
+	@EventHandler(priority = EventPriority.LOWEST)
+	public void onJoin(PlayerJoinEvent event) {
+		PermissionCache.invalidate(event.getPlayer());
+	}
+
+	@EventHandler(priority = EventPriority.LOWEST)
+	public void onWorldChange(PlayerChangedWorldEvent event) {
+		PermissionCache.invalidate(event.getPlayer());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onQuit(PlayerQuitEvent event) {
+		PermissionCache.invalidate(event.getPlayer());
+	}
+
+}
@@ -5,6 +5,7 @@
  */
 package me.filoghost.chestcommands.menu;
 
+import me.filoghost.chestcommands.PermissionCache;
 import me.filoghost.chestcommands.api.Icon;
 import me.filoghost.chestcommands.api.Menu;
 import me.filoghost.chestcommands.api.MenuView;
@@ -12,7 +13,6 @@ import me.filoghost.chestcommands.inventory.ArrayGrid;
 import me.filoghost.chestcommands.inventory.DefaultMenuView;
 import me.filoghost.chestcommands.inventory.Grid;
 import me.filoghost.commons.Preconditions;
-import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
 public abstract class BaseMenu implements Menu {
@@ -62,6 +62,9 @@ public abstract class BaseMenu implements Menu {
 	public MenuView open(Player player) {
 		Preconditions.notNull(player, "player");
 
+		// Limit how long cached permission decisions are used, they're discarded at least every time a menu is opened
+		PermissionCache.invalidate(player);
+
 		DefaultMenuView menuView = new DefaultMenuView(this, player);
 		menuView.open(player);
 		return menuView;
@@ -69,11 +72,8 @@ public abstract class BaseMenu implements Menu {
 
 	@Override
 	public void refreshMenuViews() {
-		for (Player player : Bukkit.getOnlinePlayers()) {
-			DefaultMenuView menuView = MenuManager.getOpenMenuView(player);
-			if (menuView != null && menuView.getMenu() == this) {
-				menuView.refresh();
-			}
+		for (DefaultMenuView menuView : MenuManager.getOpenMenuViews(this)) {
+			menuView.refresh();
 		}
 	}
 }
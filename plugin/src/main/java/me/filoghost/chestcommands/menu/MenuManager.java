@@ -15,24 +15,31 @@ import me.filoghost.commons.logging.ErrorCollector;
 import org.bukkit.entity.Player;
 import org.bukkit.event.block.Action;
 import org.bukkit.inventory.Inventory;
-import org.bukkit.inventory.InventoryView;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 public class MenuManager {
 	
 	private static Map<String, InternalMenu> menusByFile;
 	private static Map<String, InternalMenu> menusByOpenCommand;
 	private static Map<MenuOpenItem, InternalMenu> menusByOpenItem;
+
+	// Open views are tracked from inventory events, they are not affected by clear()
+	private static Map<Player, DefaultMenuView> openMenuViewsByViewer;
+	private static Map<BaseMenu, Set<DefaultMenuView>> openMenuViewsByMenu;
 	
 	public MenuManager() {
 		menusByFile = new CaseInsensitiveMap<>();
 		menusByOpenCommand = new CaseInsensitiveMap<>();
 		menusByOpenItem = new HashMap<>();
+		openMenuViewsByViewer = new HashMap<>();
+		openMenuViewsByMenu = new HashMap<>();
 	}
 	
 	public void clear() {
@@ -88,22 +95,50 @@ public class MenuManager {
 		return Collections.unmodifiableCollection(menusByFile.keySet());
 	}
 	
-	public static boolean isMenuInventory(Inventory inventory) {
-		return getMenuInventoryHolder(inventory) != null;
+	public void registerOpenMenuView(DefaultMenuView menuView) {
+		DefaultMenuView previousMenuView = openMenuViewsByViewer.put(menuView.getViewer(), menuView);
+		if (previousMenuView != null && previousMenuView != menuView) {
+			removeFromMenuIndex(previousMenuView);
+		}
+
+		openMenuViewsByMenu.computeIfAbsent(menuView.getMenu(), key -> new LinkedHashSet<>()).add(menuView);
 	}
 
-	public static DefaultMenuView getOpenMenuView(Player player) {
-		InventoryView view = player.getOpenInventory();
-		if (view == null) {
-			return null;
+	public void unregisterOpenMenuView(DefaultMenuView menuView) {
+		// Another view of the same viewer may have been registered in the meantime
+		openMenuViewsByViewer.remove(menuView.getViewer(), menuView);
+		removeFromMenuIndex(menuView);
+	}
+
+	private void removeFromMenuIndex(DefaultMenuView menuView) {
+		Set<DefaultMenuView> menuViews = openMenuViewsByMenu.get(menuView.getMenu());
+		if (menuViews != null) {
+			menuViews.remove(menuView);
+			if (menuViews.isEmpty()) {
+				openMenuViewsByMenu.remove(menuView.getMenu());
+			}
 		}
+	}
 
-		DefaultMenuView menuView = getOpenMenuView(view.getTopInventory());
-		if (menuView == null) {
-			menuView = getOpenMenuView(view.getBottomInventory());
+	public static Collection<DefaultMenuView> getOpenMenuViews() {
+		return Collections.unmodifiableCollection(openMenuViewsByViewer.values());
+	}
+
+	public static Collection<DefaultMenuView> getOpenMenuViews(BaseMenu menu) {
+		Set<DefaultMenuView> menuViews = openMenuViewsByMenu.get(menu);
+		if (menuViews != null) {
+			return Collections.unmodifiableCollection(menuViews);
+		} else {
+			return Collections.emptySet();
 		}
-		
-		return menuView;
+	}
+
+	public static boolean isMenuInventory(Inventory inventory) {
+		return getMenuInventoryHolder(inventory) != null;
+	}
+
+	public static DefaultMenuView getOpenMenuView(Player player) {
+		return openMenuViewsByViewer.get(player);
 	}
 	
 	
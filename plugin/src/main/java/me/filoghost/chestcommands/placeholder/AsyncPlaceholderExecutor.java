@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.placeholder;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import me.filoghost.chestcommands.config.Settings;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Bounded thread pool for async placeholder lookups, created on first use. Used only from the main thread.
+ */
+public class AsyncPlaceholderExecutor {
+
+	private static ThreadPoolExecutor executor;
+
+	/**
+	 * Returns false if the task was rejected because the queue is full.
+	 */
+	public static boolean submit(Runnable task) {
+		if (executor == null) {
+			int threads = Math.max(1, Settings.async_placeholders__threads);
+			executor = new ThreadPoolExecutor(
+					threads, threads,
+					60, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<>(Math.max(1, Settings.async_placeholders__queue_size)),
+					new ThreadFactoryBuilder().setNameFormat("ChestCommands async placeholder #%d").setDaemon(true).build());
+			executor.allowCoreThreadTimeOut(true);
+		}
+
+		try {
+			executor.execute(task);
+			return true;
+		} catch (RejectedExecutionException e) {
+			return false;
+		}
+	}
+
+	public static void shutdown() {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+
+}
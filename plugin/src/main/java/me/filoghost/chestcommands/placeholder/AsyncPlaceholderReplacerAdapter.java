@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.placeholder;
+
+import me.filoghost.chestcommands.ChestCommands;
+import me.filoghost.chestcommands.api.AsyncPlaceholderReplacer;
+import me.filoghost.chestcommands.api.PlaceholderReplacer;
+import me.filoghost.chestcommands.config.Settings;
+import me.filoghost.chestcommands.inventory.DefaultMenuView;
+import me.filoghost.chestcommands.menu.MenuManager;
+import me.filoghost.commons.logging.Log;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Exposes an async replacer as a normal one: returns the last known value and starts a new lookup in the background.
+ * How often a new lookup is started depends on the cache ticks of the placeholder.
+ * All the state is accessed only from the main thread.
+ */
+public class AsyncPlaceholderReplacerAdapter implements PlaceholderReplacer {
+
+	private final Plugin plugin;
+	private final String identifier;
+	private final AsyncPlaceholderReplacer asyncReplacer;
+	private final Map<Player, PlayerLookups> lookupsByPlayer;
+
+	public AsyncPlaceholderReplacerAdapter(Plugin plugin, String identifier, AsyncPlaceholderReplacer asyncReplacer) {
+		this.plugin = plugin;
+		this.identifier = identifier;
+		this.asyncReplacer = asyncReplacer;
+		this.lookupsByPlayer = new WeakHashMap<>();
+	}
+
+	@Override
+	public String getReplacement(Player player, String argument) {
+		PlayerLookups lookups = lookupsByPlayer.computeIfAbsent(player, key -> new PlayerLookups());
+
+		// Only one lookup at a time for the same player and argument, unless it's taking too long (the future may never complete)
+		Lookup inFlightLookup = lookups.inFlightLookups.get(argument);
+		long now = System.currentTimeMillis();
+		if (inFlightLookup == null || now > inFlightLookup.deadlineMillis) {
+			Lookup lookup = new Lookup(now + TimeUnit.SECONDS.toMillis(Math.max(1, Settings.async_placeholders__timeout_seconds)));
+			lookups.inFlightLookups.put(argument, lookup);
+			boolean submitted = AsyncPlaceholderExecutor.submit(() -> lookup(player, argument, lookups, lookup));
+			if (!submitted) {
+				// The queue is full, try again on the next replacement
+				lookups.inFlightLookups.remove(argument);
+			}
+		}
+
+		String lastValue = lookups.lastValues.get(argument);
+		if (lastValue != null) {
+			return lastValue;
+		} else {
+			return Settings.async_placeholders__loading_text;
+		}
+	}
+
+	private void lookup(Player player, String argument, PlayerLookups lookups, Lookup lookup) {
+		CompletableFuture<String> future;
+		try {
+			future = asyncReplacer.getReplacement(player, argument);
+		} catch (Throwable t) {
+			future = new CompletableFuture<>();
+			future.completeExceptionally(t);
+		}
+
+		if (future == null) {
+			future = CompletableFuture.completedFuture(null);
+		}
+
+		future.whenComplete((value, error) -> {
+			Plugin ownPlugin = ChestCommands.getPluginInstance();
+			if (ownPlugin.isEnabled()) {
+				Bukkit.getScheduler().runTask(ownPlugin, () -> onLookupComplete(player, argument, lookups, lookup, value, error));
+			}
+		});
+	}
+
+	private void onLookupComplete(Player player, String argument, PlayerLookups lookups, Lookup lookup, String value, Throwable error) {
+		if (!lookups.inFlightLookups.remove(argument, lookup)) {
+			// Completed after the deadline, a newer lookup was started in the meantime
+			return;
+		}
+
+		if (error != null) {
+			Log.warning("The async placeholder \"" + identifier + "\" registered by the plugin " + plugin.getName()
+					+ " generated an exception.", error);
+			return;
+		}
+
+		if (value == null || value.equals(lookups.lastValues.get(argument))) {
+			return;
+		}
+
+		lookups.lastValues.put(argument, value);
+
+		if (player.isOnline()) {
+			// Discard the cached previous value and show the new one, without discarding the other placeholders
+			PlaceholderManager.clearCachedReplacements(player, this, argument);
+			DefaultMenuView menuView = MenuManager.getOpenMenuView(player);
+			if (menuView != null) {
+				menuView.refresh();
+			}
+		}
+	}
+
+
+	private static class PlayerLookups {
+
+		private final Map<String, String> lastValues = new HashMap<>(); // The argument may be null
+		private final Map<String, Lookup> inFlightLookups = new HashMap<>();
+
+	}
+
+
+	private static class Lookup {
+
+		private final long deadlineMillis;
+
+		private Lookup(long deadlineMillis) {
+			this.deadlineMillis = deadlineMillis;
+		}
+
+	}
+
+}
@@ -11,15 +11,15 @@ import org.bukkit.Bukkit;
 
 public enum DefaultPlaceholder {
 
-	PLAYER("player", (player, argument) -> player.getName()),
+	PLAYER("player", false, 1, (player, argument) -> player.getName()),
 
-	ONLINE("online", (player, argument) -> String.valueOf(Bukkit.getOnlinePlayers().size())),
+	ONLINE("online", true, 1, (player, argument) -> String.valueOf(Bukkit.getOnlinePlayers().size())),
 
-	MAX_PLAYERS("max_players", (player, argument) -> String.valueOf(Bukkit.getMaxPlayers())),
+	MAX_PLAYERS("max_players", true, 1, (player, argument) -> String.valueOf(Bukkit.getMaxPlayers())),
 
-	WORLD("world", (player, argument) -> player.getWorld().getName()),
+	WORLD("world", false, 1, (player, argument) -> player.getWorld().getName()),
 
-	MONEY("money", (player, argument) -> {
+	MONEY("money", false, 20, (player, argument) -> {
 		if (VaultEconomyHook.INSTANCE.isEnabled()) {
 			return VaultEconomyHook.formatMoney(VaultEconomyHook.getMoney(player));
 		} else {
@@ -29,10 +29,14 @@ public enum DefaultPlaceholder {
 
 
 	private final String identifier;
+	private final boolean viewerIndependent;
+	private final int cacheTicks;
 	private final PlaceholderReplacer replacer;
 
-	DefaultPlaceholder(String identifier, PlaceholderReplacer replacer) {
+	DefaultPlaceholder(String identifier, boolean viewerIndependent, int cacheTicks, PlaceholderReplacer replacer) {
 		this.identifier = identifier;
+		this.viewerIndependent = viewerIndependent;
+		this.cacheTicks = cacheTicks;
 		this.replacer = replacer;
 	}
 
@@ -40,6 +44,14 @@ public enum DefaultPlaceholder {
 		return identifier;
 	}
 
+	public boolean isViewerIndependent() {
+		return viewerIndependent;
+	}
+
+	public int getCacheTicks() {
+		return cacheTicks;
+	}
+
 	public PlaceholderReplacer getReplacer() {
 		return replacer;
 	}
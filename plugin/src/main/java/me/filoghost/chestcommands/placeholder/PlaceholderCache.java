@@ -5,30 +5,117 @@
  */
 package me.filoghost.chestcommands.placeholder;
 
-import me.filoghost.chestcommands.placeholder.scanner.PlaceholderMatch;
 import org.bukkit.entity.Player;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.WeakHashMap;
-import java.util.function.Supplier;
 
+/*
+ * Replacements are stored in flat arrays indexed by the interned placeholder IDs, so that a cache hit doesn't allocate.
+ */
 public class PlaceholderCache {
 
-	private final Map<Player, Map<PlaceholderMatch, String>> cachedReplacements;
+	private final Map<Player, CachedReplacements> cachedReplacements;
+	private final CachedReplacements cachedGlobalReplacements; // Shared by all players
+	private long currentTick;
 
 	public PlaceholderCache() {
 		cachedReplacements = new WeakHashMap<>();
+		cachedGlobalReplacements = new CachedReplacements();
+	}
+
+	public CachedReplacements getReplacements(Player player) {
+		CachedReplacements playerReplacements = cachedReplacements.get(player);
+		if (playerReplacements == null) {
+			playerReplacements = new CachedReplacements();
+			cachedReplacements.put(player, playerReplacements);
+		}
+		return playerReplacements;
+	}
+
+	public CachedReplacements getGlobalReplacements() {
+		return cachedGlobalReplacements;
 	}
 
-	public String computeIfAbsent(PlaceholderMatch placeholderMatch, Player player, Supplier<String> replacementGetter) {
-		return cachedReplacements
-				.computeIfAbsent(player, key -> new HashMap<>())
-				.computeIfAbsent(placeholderMatch, key -> replacementGetter.get());
+	public void clear(Player player) {
+		CachedReplacements playerReplacements = cachedReplacements.get(player);
+		if (playerReplacements != null) {
+			playerReplacements.invalidateAll();
+		}
+	}
+
+	public void clear(Player player, int placeholderId) {
+		CachedReplacements playerReplacements = cachedReplacements.get(player);
+		if (playerReplacements != null) {
+			playerReplacements.invalidate(placeholderId);
+		}
+	}
+
+	public long getCurrentTick() {
+		return currentTick;
 	}
 
 	public void onTick() {
-		cachedReplacements.forEach((player, placeholderMap) -> placeholderMap.clear());
+		// Entries store their expiration tick, no need to clear them
+		currentTick++;
+	}
+
+
+	public class CachedReplacements {
+
+		private String[] values;
+		private long[] expirationTicks;
+		private int[] generations;
+		private int generation; // Incremented to invalidate all the entries at once
+
+		private CachedReplacements() {
+			this.values = new String[0];
+			this.expirationTicks = new long[0];
+			this.generations = new int[0];
+		}
+
+		public boolean contains(int placeholderId) {
+			return placeholderId < values.length
+					&& expirationTicks[placeholderId] > currentTick
+					&& generations[placeholderId] == generation;
+		}
+
+		/**
+		 * Returns true if a replacement was stored for the placeholder, even if expired or invalidated.
+		 */
+		public boolean containsStale(int placeholderId) {
+			return placeholderId < values.length && expirationTicks[placeholderId] != 0;
+		}
+
+		public String get(int placeholderId) {
+			return values[placeholderId];
+		}
+
+		public void put(int placeholderId, String value, int cacheTicks) {
+			if (placeholderId >= values.length) {
+				int newLength = Math.max(placeholderId + 1, values.length * 2);
+				values = Arrays.copyOf(values, newLength);
+				expirationTicks = Arrays.copyOf(expirationTicks, newLength);
+				generations = Arrays.copyOf(generations, newLength);
+			}
+
+			values[placeholderId] = value;
+			expirationTicks[placeholderId] = currentTick + cacheTicks;
+			generations[placeholderId] = generation;
+		}
+
+		private void invalidate(int placeholderId) {
+			if (placeholderId < values.length) {
+				// Kept as stale replacement
+				generations[placeholderId] = generation - 1;
+			}
+		}
+
+		private void invalidateAll() {
+			generation++;
+		}
+
 	}
 
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.placeholder;
+
+import me.filoghost.chestcommands.config.Settings;
+import me.filoghost.commons.logging.Log;
+
+/*
+ * Stops calling a replacer that is repeatedly slow or failing: while open, the last good replacements are reused.
+ * After the cooldown, the next call is tried again and the breaker opens again (with a longer cooldown) if it's still
+ * slow or failing.
+ */
+public class PlaceholderCircuitBreaker {
+
+	private static final int MAX_COOLDOWN_MULTIPLIER = 16;
+
+	private final String placeholderName;
+	private int consecutiveSlowCalls;
+	private int consecutiveFailures;
+	private long openUntilTick;
+	private boolean halfOpen; // The cooldown ended, the next call decides whether to close or open again
+	private int cooldownMultiplier;
+
+	public PlaceholderCircuitBreaker(String placeholderName) {
+		this.placeholderName = placeholderName;
+		this.cooldownMultiplier = 1;
+	}
+
+	public boolean isOpen(long currentTick) {
+		if (openUntilTick == 0) {
+			return false;
+		}
+		if (currentTick < openUntilTick) {
+			return true;
+		}
+
+		openUntilTick = 0;
+		halfOpen = true;
+		return false;
+	}
+
+	public void recordCall(long nanos, long currentTick) {
+		if (!Settings.placeholder_circuit_breaker__enabled) {
+			return;
+		}
+
+		consecutiveFailures = 0;
+
+		if (nanos / 1000 < Settings.placeholder_circuit_breaker__slow_call_micros) {
+			consecutiveSlowCalls = 0;
+			halfOpen = false;
+			cooldownMultiplier = 1;
+			return;
+		}
+
+		consecutiveSlowCalls++;
+		if (halfOpen || consecutiveSlowCalls >= Settings.placeholder_circuit_breaker__slow_calls_threshold) {
+			open(currentTick, "took " + (nanos / 1000) + "µs (slow calls threshold: "
+					+ Settings.placeholder_circuit_breaker__slow_call_micros + "µs)", null);
+		}
+	}
+
+	public void recordFailure(Throwable error, long currentTick) {
+		if (!Settings.placeholder_circuit_breaker__enabled) {
+			return;
+		}
+
+		consecutiveSlowCalls = 0;
+		consecutiveFailures++;
+		if (halfOpen || consecutiveFailures >= Settings.placeholder_circuit_breaker__failures_threshold) {
+			open(currentTick, "generated an exception", error);
+		}
+	}
+
+	private void open(long currentTick, String reason, Throwable error) {
+		int cooldownTicks = Math.max(1, Settings.placeholder_circuit_breaker__cooldown_ticks) * cooldownMultiplier;
+		Log.warning("The placeholder " + placeholderName + " " + reason + ", its last replacements will be reused for "
+				+ cooldownTicks + " ticks.", error);
+
+		openUntilTick = currentTick + cooldownTicks;
+		halfOpen = false;
+		consecutiveSlowCalls = 0;
+		consecutiveFailures = 0;
+		cooldownMultiplier = Math.min(cooldownMultiplier * 2, MAX_COOLDOWN_MULTIPLIER);
+	}
+
+}
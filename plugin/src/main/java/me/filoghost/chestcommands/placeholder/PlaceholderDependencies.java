@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.placeholder;
+
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+
+/**
+ * The placeholders used by a string or an icon, whose values determine the rendered output.
+ */
+public class PlaceholderDependencies {
+
+	private static final PlaceholderDependencies NONE = new PlaceholderDependencies(new int[0], false, true);
+
+	private final int[] placeholderIds; // Sorted and without duplicates
+	private final boolean hasUntrackedPlaceholders;
+	private final boolean viewerIndependent;
+
+	public static PlaceholderDependencies none() {
+		return NONE;
+	}
+
+	public static PlaceholderDependencies of(int[] placeholderIds, boolean hasUntrackedPlaceholders) {
+		if (placeholderIds.length == 0 && !hasUntrackedPlaceholders) {
+			return NONE;
+		}
+
+		return new PlaceholderDependencies(sortedDistinct(placeholderIds), hasUntrackedPlaceholders);
+	}
+
+	private PlaceholderDependencies(int[] placeholderIds, boolean hasUntrackedPlaceholders) {
+		this(placeholderIds, hasUntrackedPlaceholders, computeViewerIndependent(placeholderIds, hasUntrackedPlaceholders));
+	}
+
+	private PlaceholderDependencies(int[] placeholderIds, boolean hasUntrackedPlaceholders, boolean viewerIndependent) {
+		this.placeholderIds = placeholderIds;
+		this.hasUntrackedPlaceholders = hasUntrackedPlaceholders;
+		this.viewerIndependent = viewerIndependent;
+	}
+
+	private static boolean computeViewerIndependent(int[] placeholderIds, boolean hasUntrackedPlaceholders) {
+		if (hasUntrackedPlaceholders) {
+			return false;
+		}
+		for (int placeholderId : placeholderIds) {
+			if (!PlaceholderManager.isViewerIndependent(placeholderId)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int[] sortedDistinct(int[] placeholderIds) {
+		return Arrays.stream(placeholderIds).sorted().distinct().toArray();
+	}
+
+	public PlaceholderDependencies union(PlaceholderDependencies other) {
+		if (other == null || other == NONE) {
+			return this;
+		}
+		if (this == NONE) {
+			return other;
+		}
+
+		int[] mergedIds = Arrays.copyOf(placeholderIds, placeholderIds.length + other.placeholderIds.length);
+		System.arraycopy(other.placeholderIds, 0, mergedIds, placeholderIds.length, other.placeholderIds.length);
+
+		return new PlaceholderDependencies(
+				sortedDistinct(mergedIds),
+				hasUntrackedPlaceholders || other.hasUntrackedPlaceholders,
+				viewerIndependent && other.viewerIndependent);
+	}
+
+	/**
+	 * Returns false if some placeholders cannot be resolved individually (for example PlaceholderAPI placeholders),
+	 * so their values cannot be compared.
+	 */
+	public boolean isTracked() {
+		return !hasUntrackedPlaceholders;
+	}
+
+	/**
+	 * Returns true if the values are the same for every player, so the output can be shared between them.
+	 */
+	public boolean isViewerIndependent() {
+		return viewerIndependent;
+	}
+
+	public String[] resolveValues(Player player) {
+		String[] values = new String[placeholderIds.length];
+		for (int i = 0; i < placeholderIds.length; i++) {
+			values[i] = PlaceholderManager.getReplacement(placeholderIds[i], player);
+		}
+		return values;
+	}
+
+}
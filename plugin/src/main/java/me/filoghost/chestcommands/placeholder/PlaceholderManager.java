@@ -5,79 +5,158 @@
  */
 package me.filoghost.chestcommands.placeholder;
 
+import me.filoghost.chestcommands.api.AsyncPlaceholderReplacer;
 import me.filoghost.chestcommands.api.PlaceholderReplacer;
+import me.filoghost.chestcommands.config.Settings;
 import me.filoghost.chestcommands.hook.PlaceholderAPIHook;
 import me.filoghost.chestcommands.placeholder.scanner.PlaceholderMatch;
-import me.filoghost.chestcommands.placeholder.scanner.PlaceholderScanner;
 import me.filoghost.commons.Preconditions;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 public class PlaceholderManager {
 
-	private static final List<StaticPlaceholder> staticPlaceholders = new ArrayList<>();
+	private static StaticPlaceholderMatcher staticPlaceholderMatcher = new StaticPlaceholderMatcher(Collections.emptyList());
 	private static final PlaceholderRegistry relativePlaceholderRegistry = new PlaceholderRegistry();
 	static {
 		for (DefaultPlaceholder placeholder : DefaultPlaceholder.values()) {
-			relativePlaceholderRegistry.registerInternalPlaceholder(placeholder.getIdentifier(), placeholder.getReplacer());
+			relativePlaceholderRegistry.registerInternalPlaceholder(
+					placeholder.getIdentifier(), placeholder.getReplacer(), placeholder.isViewerIndependent(), placeholder.getCacheTicks());
 		}
 	}
 
 	private static final PlaceholderCache placeholderCache = new PlaceholderCache();
+	private static final Map<PlaceholderMatch, PlaceholderReference> referencesByMatch = new HashMap<>();
+	private static final Map<String, PlaceholderReference> referencesByPlaceholderAPIToken = new HashMap<>();
+	private static final List<PlaceholderReference> referencesById = new ArrayList<>();
+
+	public static String getReplacement(int placeholderId, Player player) {
+		PlaceholderReference reference = referencesById.get(placeholderId);
+		if (reference.isPlaceholderAPIToken()) {
+			return getPlaceholderAPIReplacement(reference, player);
+		}
 
-	public static boolean hasRelativePlaceholders(List<String> list) {
-		for (String element : list) {
-			if (hasRelativePlaceholders(element)) {
-				return true;
-			}
+		RegisteredPlaceholder placeholder = reference.getBoundPlaceholder(relativePlaceholderRegistry);
+
+		if (placeholder == null) {
+			return null; // Placeholder not found
 		}
-		return false;
-	}
 
-	public static boolean hasRelativePlaceholders(String text) {
-		if (new PlaceholderScanner(text).anyMatch(PlaceholderManager::isValidPlaceholder)) {
-			return true;
+		// Computed once with the first player if the result is the same for everyone
+		PlaceholderCache.CachedReplacements cachedReplacements = placeholder.isViewerIndependent()
+				? placeholderCache.getGlobalReplacements()
+				: placeholderCache.getReplacements(player);
+
+		if (cachedReplacements.contains(placeholderId)) {
+			placeholder.getStats().recordCacheHit();
+			return cachedReplacements.get(placeholderId);
 		}
 
-		if (PlaceholderAPIHook.INSTANCE.isEnabled() && PlaceholderAPIHook.hasPlaceholders(text)) {
-			return true;
+		long currentTick = placeholderCache.getCurrentTick();
+		PlaceholderCircuitBreaker circuitBreaker = placeholder.getCircuitBreaker();
+
+		if (circuitBreaker.isOpen(currentTick) && cachedReplacements.containsStale(placeholderId)) {
+			// Don't call a slow or failing replacer, reuse the last good replacement
+			placeholder.getStats().recordCacheHit();
+			return cachedReplacements.get(placeholderId);
 		}
 
-		return false;
+		long startNanos = System.nanoTime();
+		String replacement;
+		try {
+			replacement = placeholder.getReplacer().getReplacement(player, reference.getPlaceholderMatch().getArgument());
+		} catch (Throwable t) {
+			placeholder.getStats().recordReplacement(System.nanoTime() - startNanos);
+			placeholder.logReplacerError(t);
+			circuitBreaker.recordFailure(t, currentTick);
+			return cachedReplacements.containsStale(placeholderId) ? cachedReplacements.get(placeholderId) : null;
+		}
+
+		long elapsedNanos = System.nanoTime() - startNanos;
+		placeholder.getStats().recordReplacement(elapsedNanos);
+		circuitBreaker.recordCall(elapsedNanos, currentTick);
+
+		cachedReplacements.put(placeholderId, replacement, placeholder.getCacheTicks());
+		return replacement;
 	}
 
-	public static String replaceRelativePlaceholders(String text, Player player) {
-		text = new PlaceholderScanner(text).replace(match -> getReplacement(match, player));
+	private static String getPlaceholderAPIReplacement(PlaceholderReference reference, Player player) {
+		if (!PlaceholderAPIHook.INSTANCE.isEnabled()) {
+			return null;
+		}
 
-		if (PlaceholderAPIHook.INSTANCE.isEnabled()) {
-			text = PlaceholderAPIHook.setPlaceholders(text, player);
+		PlaceholderCache.CachedReplacements cachedReplacements = placeholderCache.getReplacements(player);
+		if (cachedReplacements.contains(reference.getId())) {
+			reference.getPlaceholderAPIStats().recordCacheHit();
+			return cachedReplacements.get(reference.getId());
 		}
 
-		return text;
+		// Each token is expanded on its own, so that it's computed once even if used in many strings
+		long startNanos = System.nanoTime();
+		String replacement = PlaceholderAPIHook.setPlaceholders(reference.getPlaceholderAPIToken(), player);
+		reference.getPlaceholderAPIStats().recordReplacement(System.nanoTime() - startNanos);
+
+		cachedReplacements.put(reference.getId(), replacement, Math.max(1, Settings.placeholderapi_cache_ticks));
+		return replacement;
 	}
 
-	private static boolean isValidPlaceholder(PlaceholderMatch placeholderMatch) {
-		return relativePlaceholderRegistry.getPlaceholderReplacer(placeholderMatch) != null;
+	/**
+	 * Returns a small integer that uniquely identifies the placeholder, used to index cached replacements.
+	 */
+	public static int getPlaceholderId(PlaceholderMatch placeholderMatch) {
+		PlaceholderReference reference = referencesByMatch.get(placeholderMatch);
+		if (reference == null) {
+			reference = new PlaceholderReference(referencesById.size(), placeholderMatch, null);
+			referencesByMatch.put(placeholderMatch, reference);
+			referencesById.add(reference);
+		}
+		return reference.getId();
 	}
 
-	private static String getReplacement(PlaceholderMatch placeholderMatch, Player player) {
-		PlaceholderReplacer placeholderReplacer = relativePlaceholderRegistry.getPlaceholderReplacer(placeholderMatch);
+	/**
+	 * Same as {@link #getPlaceholderId(PlaceholderMatch)}, for a PlaceholderAPI token like "%player_level%".
+	 */
+	public static int getPlaceholderAPITokenId(String token) {
+		PlaceholderReference reference = referencesByPlaceholderAPIToken.get(token);
+		if (reference == null) {
+			reference = new PlaceholderReference(referencesById.size(), null, token);
+			referencesByPlaceholderAPIToken.put(token, reference);
+			referencesById.add(reference);
+		}
+		return reference.getId();
+	}
 
-		if (placeholderReplacer == null) {
-			return null; // Placeholder not found
+	/**
+	 * Returns true if the placeholder is currently replaced, ChestCommands placeholders may not be registered yet.
+	 */
+	public static boolean isBound(int placeholderId) {
+		PlaceholderReference reference = referencesById.get(placeholderId);
+		return reference.isPlaceholderAPIToken() || reference.getBoundPlaceholder(relativePlaceholderRegistry) != null;
+	}
+
+	public static int getRegistryVersion() {
+		return relativePlaceholderRegistry.getVersion();
+	}
+
+	public static boolean isViewerIndependent(int placeholderId) {
+		PlaceholderReference reference = referencesById.get(placeholderId);
+		if (reference.isPlaceholderAPIToken()) {
+			return false;
 		}
 
-		return placeholderCache.computeIfAbsent(placeholderMatch, player, () -> {
-			return placeholderReplacer.getReplacement(player, placeholderMatch.getArgument());
-		});
+		RegisteredPlaceholder placeholder = reference.getBoundPlaceholder(relativePlaceholderRegistry);
+		return placeholder != null && placeholder.isViewerIndependent();
 	}
 
 	public static void setStaticPlaceholders(List<StaticPlaceholder> staticPlaceholders) {
-		PlaceholderManager.staticPlaceholders.clear();
-		PlaceholderManager.staticPlaceholders.addAll(staticPlaceholders);
+		staticPlaceholderMatcher = new StaticPlaceholderMatcher(staticPlaceholders);
 	}
 
 	public static boolean hasStaticPlaceholders(List<String> list) {
@@ -90,29 +169,50 @@ public class PlaceholderManager {
 	}
 
 	public static boolean hasStaticPlaceholders(String text) {
-		for (StaticPlaceholder staticPlaceholder : staticPlaceholders) {
-			if (text.contains(staticPlaceholder.getIdentifier())) {
-				return true;
-			}
-		}
-		return false;
+		return staticPlaceholderMatcher.containsAny(text);
 	}
 
 	public static String replaceStaticPlaceholders(String text) {
-		for (StaticPlaceholder staticPlaceholder : staticPlaceholders) {
-			text = text.replace(staticPlaceholder.getIdentifier(), staticPlaceholder.getReplacement());
-		}
-		return text;
+		return staticPlaceholderMatcher.replaceAll(text);
 	}
 
-	public static void registerPluginPlaceholder(Plugin plugin, String identifier, PlaceholderReplacer placeholderReplacer) {
+	public static void registerPluginPlaceholder(Plugin plugin, String identifier, PlaceholderReplacer placeholderReplacer, int cacheTicks) {
 		Preconditions.notNull(plugin, "plugin");
 		Preconditions.notNull(identifier, "identifier");
 		Preconditions.checkArgument(1 <= identifier.length() && identifier.length() <= 30, "identifier length must be between 1 and 30");
 		Preconditions.checkArgument(identifier.matches("[a-zA-Z0-9_]+"), "identifier must contain only letters, numbers and underscores");
 		Preconditions.notNull(placeholderReplacer, "placeholderReplacer");
+		Preconditions.checkArgument(cacheTicks >= 1, "cacheTicks must be at least 1");
+
+		relativePlaceholderRegistry.registerExternalPlaceholder(plugin, identifier, placeholderReplacer, cacheTicks);
+	}
 
-		relativePlaceholderRegistry.registerExternalPlaceholder(plugin, identifier, placeholderReplacer);
+	public static void registerAsyncPluginPlaceholder(Plugin plugin, String identifier, AsyncPlaceholderReplacer placeholderReplacer, int cacheTicks) {
+		Preconditions.notNull(plugin, "plugin");
+		Preconditions.notNull(identifier, "identifier");
+		Preconditions.notNull(placeholderReplacer, "placeholderReplacer");
+
+		registerPluginPlaceholder(plugin, identifier, new AsyncPlaceholderReplacerAdapter(plugin, identifier, placeholderReplacer), cacheTicks);
+	}
+
+	public static void clearCachedReplacements(Player player) {
+		placeholderCache.clear(player);
+	}
+
+	/**
+	 * Discards only the cached replacements of a placeholder with the given replacer and argument.
+	 */
+	public static void clearCachedReplacements(Player player, PlaceholderReplacer replacer, String argument) {
+		for (PlaceholderReference reference : referencesById) {
+			if (reference.isPlaceholderAPIToken() || !Objects.equals(reference.getPlaceholderMatch().getArgument(), argument)) {
+				continue;
+			}
+
+			RegisteredPlaceholder placeholder = reference.getBoundPlaceholder(relativePlaceholderRegistry);
+			if (placeholder != null && placeholder.getReplacer() == replacer) {
+				placeholderCache.clear(player, reference.getId());
+			}
+		}
 	}
 
 	public static void onTick() {
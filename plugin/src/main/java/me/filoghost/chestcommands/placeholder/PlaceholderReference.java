@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.placeholder;
+
+import me.filoghost.chestcommands.placeholder.scanner.PlaceholderMatch;
+
+/*
+ * A placeholder interned to a small integer ID: either a placeholder of ChestCommands or a single PlaceholderAPI token.
+ */
+public class PlaceholderReference {
+
+	private final int id;
+	private final PlaceholderMatch placeholderMatch; // Null for PlaceholderAPI tokens
+	private final String placeholderAPIToken; // Null for ChestCommands placeholders
+	private final PlaceholderStats placeholderAPIStats; // ChestCommands placeholders use the stats of the registered placeholder
+	private RegisteredPlaceholder boundPlaceholder; // Resolved from the registry, null if not registered
+	private int boundVersion = -1; // Registry version when the placeholder was resolved
+
+	public PlaceholderReference(int id, PlaceholderMatch placeholderMatch, String placeholderAPIToken) {
+		this.id = id;
+		this.placeholderMatch = placeholderMatch;
+		this.placeholderAPIToken = placeholderAPIToken;
+		this.placeholderAPIStats = placeholderAPIToken != null ? PlaceholderStats.of(placeholderAPIToken, "PlaceholderAPI") : null;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public PlaceholderMatch getPlaceholderMatch() {
+		return placeholderMatch;
+	}
+
+	public String getPlaceholderAPIToken() {
+		return placeholderAPIToken;
+	}
+
+	public PlaceholderStats getPlaceholderAPIStats() {
+		return placeholderAPIStats;
+	}
+
+	public RegisteredPlaceholder getBoundPlaceholder(PlaceholderRegistry registry) {
+		if (boundVersion != registry.getVersion()) {
+			// Resolved only when the registry changes, instead of on every replacement
+			boundPlaceholder = registry.getPlaceholder(placeholderMatch);
+			boundVersion = registry.getVersion();
+		}
+		return boundPlaceholder;
+	}
+
+	public boolean isPlaceholderAPIToken() {
+		return placeholderAPIToken != null;
+	}
+
+}
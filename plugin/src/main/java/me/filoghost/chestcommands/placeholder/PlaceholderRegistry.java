@@ -15,39 +15,46 @@ import java.util.Map;
 
 public class PlaceholderRegistry {
 
-	private final Map<String, PlaceholderReplacer> internalPlaceholders = new HashMap<>();
-	private final Map<String, Map<String, PlaceholderReplacer>> externalPlaceholders = new HashMap<>();
+	private final Map<String, RegisteredPlaceholder> internalPlaceholders = new HashMap<>();
+	private final Map<String, Map<String, RegisteredPlaceholder>> externalPlaceholders = new HashMap<>();
+	private int version; // Incremented on every change, so that bound references know when to resolve again
 
-	public void registerInternalPlaceholder(String identifier, PlaceholderReplacer replacer) {
-		internalPlaceholders.put(identifier, replacer);
+	public void registerInternalPlaceholder(String identifier, PlaceholderReplacer replacer, boolean viewerIndependent, int cacheTicks) {
+		internalPlaceholders.put(identifier, new RegisteredPlaceholder(identifier, null, replacer, viewerIndependent, cacheTicks));
+		version++;
 	}
 
-	public void registerExternalPlaceholder(Plugin plugin, String identifier, PlaceholderReplacer placeholderReplacer) {
+	public void registerExternalPlaceholder(Plugin plugin, String identifier, PlaceholderReplacer placeholderReplacer, int cacheTicks) {
+		// The replacement of external placeholders may always depend on the player
 		externalPlaceholders
 				.computeIfAbsent(identifier, key -> new LinkedHashMap<>())
-				.put(plugin.getName(), placeholderReplacer);
+				.put(plugin.getName(), new RegisteredPlaceholder(identifier, plugin.getName(), placeholderReplacer, false, cacheTicks));
+		version++;
 	}
 
-	public PlaceholderReplacer getPlaceholderReplacer(PlaceholderMatch placeholderMatch) {
+	public int getVersion() {
+		return version;
+	}
+
+	public RegisteredPlaceholder getPlaceholder(PlaceholderMatch placeholderMatch) {
 		if (placeholderMatch.getPluginNamespace() == null) {
-			PlaceholderReplacer internalReplacer = internalPlaceholders.get(placeholderMatch.getIdentifier());
-			if (internalReplacer != null) {
-				return internalReplacer;
+			RegisteredPlaceholder internalPlaceholder = internalPlaceholders.get(placeholderMatch.getIdentifier());
+			if (internalPlaceholder != null) {
+				return internalPlaceholder;
 			}
 		}
 
-		Map<String, PlaceholderReplacer> externalReplacers = externalPlaceholders.get(placeholderMatch.getIdentifier());
-
-		// Find exact replacer if plugin name is specified
-		if (placeholderMatch.getPluginNamespace() != null) {
-			return externalReplacers.get(placeholderMatch.getPluginNamespace());
+		Map<String, RegisteredPlaceholder> externalPlaceholdersByPlugin = externalPlaceholders.get(placeholderMatch.getIdentifier());
+		if (externalPlaceholdersByPlugin == null || externalPlaceholdersByPlugin.isEmpty()) {
+			return null;
 		}
 
-		if (externalReplacers != null && !externalReplacers.isEmpty()) {
-			return externalReplacers.values().iterator().next();
+		// Find exact placeholder if plugin name is specified
+		if (placeholderMatch.getPluginNamespace() != null) {
+			return externalPlaceholdersByPlugin.get(placeholderMatch.getPluginNamespace());
 		}
 
-		return null;
+		return externalPlaceholdersByPlugin.values().iterator().next();
 	}
 
 }
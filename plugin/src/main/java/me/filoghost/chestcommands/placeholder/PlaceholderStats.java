@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.placeholder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Usage statistics of a single placeholder (or PlaceholderAPI token), collected since the last reset.
+ * Only updated from the main thread.
+ */
+public class PlaceholderStats {
+
+	private static final int LATENCY_BUCKETS = 12;
+
+	private static final Map<String, PlaceholderStats> statsByKey = new LinkedHashMap<>();
+	private static long windowStartMillis = System.currentTimeMillis();
+
+	private final String name;
+	private final String pluginName;
+	private final long[] latencyDistribution;
+	private long calls;
+	private long cacheHits;
+	private long totalNanos;
+	private long maxNanos;
+
+	/**
+	 * Returns the statistics for the given placeholder, the same instance is kept if registered again.
+	 */
+	public static PlaceholderStats of(String name, String pluginName) {
+		return statsByKey.computeIfAbsent(pluginName + "/" + name, key -> new PlaceholderStats(name, pluginName));
+	}
+
+	private PlaceholderStats(String name, String pluginName) {
+		this.name = name;
+		this.pluginName = pluginName;
+		this.latencyDistribution = new long[LATENCY_BUCKETS];
+	}
+
+	public void recordCacheHit() {
+		calls++;
+		cacheHits++;
+	}
+
+	public void recordReplacement(long nanos) {
+		calls++;
+		totalNanos += nanos;
+		maxNanos = Math.max(maxNanos, nanos);
+		latencyDistribution[bucketIndex(nanos)]++;
+	}
+
+	private static int bucketIndex(long nanos) {
+		long micros = nanos / 1000;
+		if (micros == 0) {
+			return 0;
+		}
+		int bucketIndex = 64 - Long.numberOfLeadingZeros(micros); // 1 -> 1, 2-3 -> 2, 4-7 -> 3, ...
+		return Math.min(bucketIndex, LATENCY_BUCKETS - 1);
+	}
+
+	public static String getLatencyBucketLabel(int bucketIndex) {
+		if (bucketIndex == 0) {
+			return "<1µs";
+		}
+
+		long min = 1L << (bucketIndex - 1);
+		if (bucketIndex == LATENCY_BUCKETS - 1) {
+			return min + "µs+";
+		}
+
+		long max = (1L << bucketIndex) - 1;
+		return (min == max ? String.valueOf(min) : min + "-" + max) + "µs";
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getPluginName() {
+		return pluginName;
+	}
+
+	public long getCalls() {
+		return calls;
+	}
+
+	public long getCacheHits() {
+		return cacheHits;
+	}
+
+	public double getCacheHitRate() {
+		return calls > 0 ? (double) cacheHits / calls : 0;
+	}
+
+	public long getReplacements() {
+		return calls - cacheHits;
+	}
+
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	public long getAverageNanos() {
+		long replacements = getReplacements();
+		return replacements > 0 ? totalNanos / replacements : 0;
+	}
+
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	/**
+	 * Returns how many replacements fall in each latency bucket, the last bucket includes all the higher values.
+	 */
+	public long[] getLatencyDistribution() {
+		return latencyDistribution.clone();
+	}
+
+	private void reset() {
+		calls = 0;
+		cacheHits = 0;
+		totalNanos = 0;
+		maxNanos = 0;
+		Arrays.fill(latencyDistribution, 0);
+	}
+
+	public static List<PlaceholderStats> getAll() {
+		return new ArrayList<>(statsByKey.values());
+	}
+
+	public static long getWindowStartMillis() {
+		return windowStartMillis;
+	}
+
+	public static void resetAll() {
+		for (PlaceholderStats stats : statsByKey.values()) {
+			stats.reset();
+		}
+		windowStartMillis = System.currentTimeMillis();
+	}
+
+}
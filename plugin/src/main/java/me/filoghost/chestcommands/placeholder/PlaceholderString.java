@@ -11,7 +11,8 @@ public class PlaceholderString {
 
 	private final String originalString;
 	private final String stringWithStaticPlaceholders;
-	private final boolean hasDynamicPlaceholders;
+	private final PlaceholderTemplate template; // Null if there are no placeholders, including the ones not registered yet
+	private final PlaceholderDependencies dependencies;
 
 	public static PlaceholderString of(String string) {
 		if (string != null) {
@@ -24,12 +25,21 @@ public class PlaceholderString {
 	private PlaceholderString(String originalString) {
 		this.originalString = originalString;
 		this.stringWithStaticPlaceholders = PlaceholderManager.replaceStaticPlaceholders(originalString);
-		this.hasDynamicPlaceholders = PlaceholderManager.hasRelativePlaceholders(stringWithStaticPlaceholders);
+
+		// Parse the string only once, rendering just fills in the placeholders
+		PlaceholderTemplate template = PlaceholderTemplate.compile(stringWithStaticPlaceholders);
+		if (template.hasPlaceholders()) {
+			this.template = template;
+			this.dependencies = template.getDependencies();
+		} else {
+			this.template = null;
+			this.dependencies = PlaceholderDependencies.none();
+		}
 	}
 	
 	public String getValue(Player player) {
-		if (hasDynamicPlaceholders) {
-			return PlaceholderManager.replaceRelativePlaceholders(stringWithStaticPlaceholders, player);
+		if (hasDynamicPlaceholders()) {
+			return template.render(player);
 		} else {
 			return stringWithStaticPlaceholders;
 		}
@@ -39,8 +49,22 @@ public class PlaceholderString {
 		return originalString;
 	}
 
+	/**
+	 * Returns true if the value may depend on the player. It may change from false to true when placeholders are registered.
+	 */
 	public boolean hasDynamicPlaceholders() {
-		return hasDynamicPlaceholders;
+		return template != null && template.hasDynamicPlaceholders();
+	}
+
+	/**
+	 * Returns true if the string contains placeholders, even if not registered yet.
+	 */
+	public boolean hasPlaceholders() {
+		return template != null;
+	}
+
+	public PlaceholderDependencies getDependencies() {
+		return dependencies;
 	}
 
 }
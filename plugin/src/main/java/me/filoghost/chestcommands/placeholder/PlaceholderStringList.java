@@ -11,13 +11,16 @@ import me.filoghost.commons.collection.CollectionUtils;
 import org.bukkit.entity.Player;
 
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 public class PlaceholderStringList {
 
 	private final ImmutableList<String> originalList;
 	private final ImmutableList<String> listWithStaticPlaceholders;
-	private final ImmutableList<PlaceholderString> placeholderStringList;
-	private final boolean hasDynamicPlaceholders;
+	private final PlaceholderString[] dynamicLines; // Null elements for lines without placeholders, null if there are none
+	private final PlaceholderDependencies dependencies;
+	private final Map<Player, ImmutableList<String>> lastValues; // Returned again to the same viewer if no dynamic line changed
 	
 	public PlaceholderStringList(List<String> list) {
 		Preconditions.notNull(list, "list");
@@ -30,12 +33,23 @@ public class PlaceholderStringList {
 			this.listWithStaticPlaceholders = originalList;
 		}
 
-		this.hasDynamicPlaceholders = PlaceholderManager.hasRelativePlaceholders(listWithStaticPlaceholders);
-		if (hasDynamicPlaceholders) {
-			this.placeholderStringList = CollectionUtils.transformImmutable(listWithStaticPlaceholders, PlaceholderString::of);
-		} else {
-			this.placeholderStringList = null;
+		// Only the lines with dynamic placeholders are evaluated when rendering
+		PlaceholderString[] dynamicLines = new PlaceholderString[listWithStaticPlaceholders.size()];
+		PlaceholderDependencies dependencies = PlaceholderDependencies.none();
+		boolean hasDynamicPlaceholders = false;
+
+		for (int i = 0; i < dynamicLines.length; i++) {
+			PlaceholderString line = PlaceholderString.of(listWithStaticPlaceholders.get(i));
+			if (line.hasPlaceholders()) {
+				dynamicLines[i] = line;
+				dependencies = dependencies.union(line.getDependencies());
+				hasDynamicPlaceholders = true;
+			}
 		}
+
+		this.dynamicLines = hasDynamicPlaceholders ? dynamicLines : null;
+		this.dependencies = dependencies;
+		this.lastValues = new WeakHashMap<>();
 	}
 	
 	public ImmutableList<String> getOriginalValue() {
@@ -43,15 +57,55 @@ public class PlaceholderStringList {
 	}
 	
 	public ImmutableList<String> getValue(Player player) {
-		if (hasDynamicPlaceholders) {
-			return CollectionUtils.transformImmutable(placeholderStringList, element -> element.getValue(player));
-		} else {
+		if (!hasDynamicPlaceholders()) {
 			return listWithStaticPlaceholders;
 		}
+
+		// Compared with the previous value of the same viewer, lines may depend on the viewer
+		ImmutableList<String> previousValue = lastValues.get(player);
+		String[] newValue = null; // Created only when a line differs from the previous value
+
+		for (int i = 0; i < dynamicLines.length; i++) {
+			PlaceholderString dynamicLine = dynamicLines[i];
+			if (dynamicLine == null) {
+				continue;
+			}
+
+			String lineValue = dynamicLine.getValue(player);
+			if (newValue == null) {
+				if (previousValue != null && lineValue.equals(previousValue.get(i))) {
+					continue;
+				}
+				newValue = (previousValue != null ? previousValue : listWithStaticPlaceholders).toArray(new String[0]);
+			}
+			newValue[i] = lineValue;
+		}
+
+		if (newValue == null) {
+			return previousValue;
+		}
+
+		ImmutableList<String> value = ImmutableList.copyOf(newValue);
+		lastValues.put(player, value);
+		return value;
 	}
 	
 	public boolean hasDynamicPlaceholders() {
-		return hasDynamicPlaceholders;
+		if (dynamicLines == null) {
+			return false;
+		}
+
+		// Placeholders may be registered after the list is created
+		for (PlaceholderString dynamicLine : dynamicLines) {
+			if (dynamicLine != null && dynamicLine.hasDynamicPlaceholders()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public PlaceholderDependencies getDependencies() {
+		return dependencies;
 	}
 
 }
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.placeholder;
+
+import me.filoghost.chestcommands.hook.PlaceholderAPIHook;
+import me.filoghost.chestcommands.placeholder.scanner.PlaceholderScanner;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/*
+ * A string split once into literal chunks and placeholders, so that rendering doesn't need to scan and parse it again.
+ * The literal chunks are one more than the placeholders: literal, placeholder, literal, ..., placeholder, literal.
+ *
+ * PlaceholderAPI tokens (%identifier%) are detected at compile time and resolved one by one like the other placeholders.
+ * If a token contains a ChestCommands placeholder, the whole output is passed to PlaceholderAPI instead.
+ */
+public class PlaceholderTemplate {
+
+	private final String[] literals;
+	private final int[] placeholderIds;
+	private final String[] placeholderTexts; // Used as fallback when a replacement is not available
+	private final boolean usesPlaceholderAPIOnOutput;
+	private final int literalsLength;
+	private int lastRenderLength; // Hint for the initial capacity of the buffer
+	private int checkedRegistryVersion = -1; // Placeholder registry version when hasBoundPlaceholders was computed
+	private boolean hasBoundPlaceholders;
+
+	public static PlaceholderTemplate compile(String text) {
+		List<Segment> segments = new ArrayList<>();
+
+		new PlaceholderScanner(text).forEachWithIndexes((placeholderMatch, startIndex, endIndex) -> {
+			// Also placeholders not registered yet, they're rendered as plain text until a plugin registers them
+			segments.add(new Segment(startIndex, endIndex, PlaceholderManager.getPlaceholderId(placeholderMatch)));
+		});
+
+		boolean usesPlaceholderAPIOnOutput = false;
+		if (PlaceholderAPIHook.INSTANCE.isEnabled()) {
+			List<Segment> tokenSegments = findPlaceholderAPITokens(text);
+			if (overlapsAny(tokenSegments, segments)) {
+				usesPlaceholderAPIOnOutput = true;
+			} else {
+				segments.addAll(tokenSegments);
+			}
+		}
+
+		segments.sort(Comparator.comparingInt(segment -> segment.startIndex));
+
+		String[] literals = new String[segments.size() + 1];
+		int[] placeholderIds = new int[segments.size()];
+		String[] placeholderTexts = new String[segments.size()];
+		int lastEndIndex = 0;
+
+		for (int i = 0; i < segments.size(); i++) {
+			Segment segment = segments.get(i);
+			literals[i] = text.substring(lastEndIndex, segment.startIndex);
+			placeholderIds[i] = segment.placeholderId;
+			placeholderTexts[i] = text.substring(segment.startIndex, segment.endIndex);
+			lastEndIndex = segment.endIndex;
+		}
+		literals[segments.size()] = text.substring(lastEndIndex);
+
+		return new PlaceholderTemplate(literals, placeholderIds, placeholderTexts, usesPlaceholderAPIOnOutput);
+	}
+
+	/*
+	 * Same format recognized by PlaceholderAPI: a percent sign, one or more other characters, a percent sign.
+	 */
+	private static List<Segment> findPlaceholderAPITokens(String text) {
+		List<Segment> tokens = new ArrayList<>();
+		int startIndex = text.indexOf('%');
+
+		while (startIndex >= 0) {
+			int endIndex = text.indexOf('%', startIndex + 1);
+			if (endIndex < 0) {
+				break;
+			}
+
+			if (endIndex == startIndex + 1) {
+				// Empty token, the second sign may start a new one
+				startIndex = endIndex;
+				continue;
+			}
+
+			String token = text.substring(startIndex, endIndex + 1);
+			tokens.add(new Segment(startIndex, endIndex + 1, PlaceholderManager.getPlaceholderAPITokenId(token)));
+			startIndex = text.indexOf('%', endIndex + 1);
+		}
+
+		return tokens;
+	}
+
+	private static boolean overlapsAny(List<Segment> segments, List<Segment> otherSegments) {
+		for (Segment segment : segments) {
+			for (Segment otherSegment : otherSegments) {
+				if (segment.startIndex < otherSegment.endIndex && otherSegment.startIndex < segment.endIndex) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private PlaceholderTemplate(String[] literals, int[] placeholderIds, String[] placeholderTexts, boolean usesPlaceholderAPIOnOutput) {
+		this.literals = literals;
+		this.placeholderIds = placeholderIds;
+		this.placeholderTexts = placeholderTexts;
+		this.usesPlaceholderAPIOnOutput = usesPlaceholderAPIOnOutput;
+
+		int literalsLength = 0;
+		for (String literal : literals) {
+			literalsLength += literal.length();
+		}
+		this.literalsLength = literalsLength;
+	}
+
+	public String render(Player player) {
+		String output;
+
+		if (placeholderIds.length == 0) {
+			output = literals[0];
+		} else {
+			StringBuilder buffer = new StringBuilder(Math.max(lastRenderLength, literalsLength + 16 * placeholderIds.length));
+			buffer.append(literals[0]);
+			for (int i = 0; i < placeholderIds.length; i++) {
+				String replacement = PlaceholderManager.getReplacement(placeholderIds[i], player);
+				buffer.append(replacement != null ? replacement : placeholderTexts[i]);
+				buffer.append(literals[i + 1]);
+			}
+			lastRenderLength = buffer.length();
+			output = buffer.toString();
+		}
+
+		if (usesPlaceholderAPIOnOutput && PlaceholderAPIHook.INSTANCE.isEnabled()) {
+			output = PlaceholderAPIHook.setPlaceholders(output, player);
+		}
+
+		return output;
+	}
+
+	public boolean hasPlaceholders() {
+		return placeholderIds.length > 0 || usesPlaceholderAPIOnOutput;
+	}
+
+	/**
+	 * Returns true if some placeholders are currently replaced when rendering, the others are rendered as plain text.
+	 * It may change when placeholders are registered.
+	 */
+	public boolean hasDynamicPlaceholders() {
+		if (usesPlaceholderAPIOnOutput) {
+			return true;
+		}
+
+		int registryVersion = PlaceholderManager.getRegistryVersion();
+		if (checkedRegistryVersion != registryVersion) {
+			hasBoundPlaceholders = false;
+			for (int placeholderId : placeholderIds) {
+				if (PlaceholderManager.isBound(placeholderId)) {
+					hasBoundPlaceholders = true;
+					break;
+				}
+			}
+			checkedRegistryVersion = registryVersion;
+		}
+
+		return hasBoundPlaceholders;
+	}
+
+	public PlaceholderDependencies getDependencies() {
+		return PlaceholderDependencies.of(placeholderIds, usesPlaceholderAPIOnOutput);
+	}
+
+
+	private static class Segment {
+
+		private final int startIndex;
+		private final int endIndex; // Exclusive
+		private final int placeholderId;
+
+		private Segment(int startIndex, int endIndex, int placeholderId) {
+			this.startIndex = startIndex;
+			this.endIndex = endIndex;
+			this.placeholderId = placeholderId;
+		}
+
+	}
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.placeholder;
+
+import me.filoghost.chestcommands.api.PlaceholderReplacer;
+import me.filoghost.commons.logging.Log;
+
+import java.util.concurrent.TimeUnit;
+
+public class RegisteredPlaceholder {
+
+	private static final long ERROR_LOG_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+	private final String identifier;
+	private final String pluginName; // Null for internal placeholders
+	private final PlaceholderReplacer replacer;
+	private final boolean viewerIndependent; // The replacement is the same for every player
+	private final int cacheTicks; // How many ticks a replacement is reused
+	private final PlaceholderStats stats;
+	private final PlaceholderCircuitBreaker circuitBreaker;
+	private long lastErrorLogMillis;
+
+	public RegisteredPlaceholder(String identifier, String pluginName, PlaceholderReplacer replacer, boolean viewerIndependent, int cacheTicks) {
+		this.identifier = identifier;
+		this.pluginName = pluginName;
+		this.replacer = replacer;
+		this.viewerIndependent = viewerIndependent;
+		this.cacheTicks = cacheTicks;
+		this.stats = PlaceholderStats.of("{" + identifier + "}", pluginName != null ? pluginName : "ChestCommands");
+		this.circuitBreaker = new PlaceholderCircuitBreaker(
+				"{" + identifier + "}" + (pluginName != null ? " registered by the plugin " + pluginName : ""));
+	}
+
+	public String getIdentifier() {
+		return identifier;
+	}
+
+	public String getPluginName() {
+		return pluginName;
+	}
+
+	public PlaceholderReplacer getReplacer() {
+		return replacer;
+	}
+
+	public boolean isViewerIndependent() {
+		return viewerIndependent;
+	}
+
+	public int getCacheTicks() {
+		return cacheTicks;
+	}
+
+	public PlaceholderStats getStats() {
+		return stats;
+	}
+
+	public PlaceholderCircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	public void logReplacerError(Throwable error) {
+		// A failing replacer is usually called many times per second, log at most once in a while
+		long now = System.currentTimeMillis();
+		if (lastErrorLogMillis != 0 && now - lastErrorLogMillis < ERROR_LOG_INTERVAL_MILLIS) {
+			return;
+		}
+		lastErrorLogMillis = now;
+
+		if (pluginName != null) {
+			Log.warning("The placeholder \"" + identifier + "\" registered by the plugin " + pluginName + " generated an exception.", error);
+		} else {
+			Log.warning("The placeholder \"" + identifier + "\" generated an exception.", error);
+		}
+	}
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.placeholder;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/*
+ * Aho-Corasick automaton that finds all the static placeholder identifiers in a single pass over a string.
+ * Overlapping identifiers are resolved by replacing the leftmost match, and the longest one among those with the same start.
+ */
+public class StaticPlaceholderMatcher {
+
+	private final Node root;
+	private final boolean empty;
+
+	public StaticPlaceholderMatcher(List<StaticPlaceholder> staticPlaceholders) {
+		this.root = new Node(0);
+
+		Map<Node, TreeMap<Character, Node>> childrenByNode = new HashMap<>();
+		boolean empty = true;
+
+		for (StaticPlaceholder staticPlaceholder : staticPlaceholders) {
+			String identifier = staticPlaceholder.getIdentifier();
+			if (identifier.isEmpty()) {
+				continue;
+			}
+
+			Node node = root;
+			for (int i = 0; i < identifier.length(); i++) {
+				int depth = node.depth + 1;
+				node = childrenByNode.computeIfAbsent(node, key -> new TreeMap<>()).computeIfAbsent(identifier.charAt(i), key -> new Node(depth));
+			}
+
+			// With duplicate identifiers, the first one is used
+			if (node.placeholder == null) {
+				node.placeholder = staticPlaceholder;
+			}
+			empty = false;
+		}
+
+		this.empty = empty;
+		build(childrenByNode);
+	}
+
+	private void build(Map<Node, TreeMap<Character, Node>> childrenByNode) {
+		// Freeze children into sorted arrays, then compute failure links breadth-first
+		Queue<Node> queue = new ArrayDeque<>();
+		root.failure = root;
+		queue.add(root);
+
+		while (!queue.isEmpty()) {
+			Node node = queue.poll();
+			TreeMap<Character, Node> children = childrenByNode.get(node);
+			if (children == null) {
+				continue;
+			}
+
+			node.childChars = new char[children.size()];
+			node.childNodes = new Node[children.size()];
+			int i = 0;
+			for (Map.Entry<Character, Node> entry : children.entrySet()) {
+				char c = entry.getKey();
+				Node child = entry.getValue();
+				node.childChars[i] = c;
+				node.childNodes[i] = child;
+				i++;
+
+				child.failure = node == root ? root : next(node.failure, c);
+				child.longestMatch = child.placeholder != null ? child : child.failure.longestMatch;
+				queue.add(child);
+			}
+		}
+	}
+
+	private Node next(Node node, char c) {
+		while (true) {
+			Node child = node.getChild(c);
+			if (child != null) {
+				return child;
+			}
+			if (node == root) {
+				return root;
+			}
+			node = node.failure;
+		}
+	}
+
+	public boolean containsAny(String text) {
+		if (empty) {
+			return false;
+		}
+
+		Node node = root;
+		for (int i = 0; i < text.length(); i++) {
+			node = next(node, text.charAt(i));
+			if (node.longestMatch != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the same string instance if no identifier is found.
+	 */
+	public String replaceAll(String text) {
+		if (empty) {
+			return text;
+		}
+
+		StringBuilder output = null;
+		int lastAppendIndex = 0;
+
+		Node node = root;
+		Node candidate = null;
+		int candidateStart = 0;
+		int candidateEnd = 0; // Exclusive
+		int textLength = text.length();
+		int i = 0;
+
+		while (i <= textLength) {
+			if (i < textLength) {
+				node = next(node, text.charAt(i));
+				Node match = node.longestMatch;
+				if (match != null) {
+					int matchStart = i + 1 - match.depth;
+					if (candidate == null || matchStart < candidateStart || (matchStart == candidateStart && i + 1 > candidateEnd)) {
+						candidate = match;
+						candidateStart = matchStart;
+						candidateEnd = i + 1;
+					}
+				}
+			}
+
+			// The candidate is final when no partial match can start at or before it, or the text is over
+			if (candidate != null && (i == textLength || i + 1 - node.depth > candidateStart)) {
+				if (output == null) {
+					output = new StringBuilder(textLength + 16);
+				}
+				output.append(text, lastAppendIndex, candidateStart);
+				output.append(candidate.placeholder.getReplacement());
+				lastAppendIndex = candidateEnd;
+
+				// Restart right after the replaced identifier
+				i = candidateEnd;
+				node = root;
+				candidate = null;
+				continue;
+			}
+
+			i++;
+		}
+
+		if (output == null) {
+			return text;
+		}
+
+		output.append(text, lastAppendIndex, textLength);
+		return output.toString();
+	}
+
+
+	private static class Node {
+
+		private final int depth;
+		private char[] childChars; // Sorted, for binary search
+		private Node[] childNodes;
+		private Node failure;
+		private StaticPlaceholder placeholder; // Set if an identifier ends at this node
+		private Node longestMatch; // This node or the nearest node in the failure chain with a placeholder
+
+		private Node(int depth) {
+			this.depth = depth;
+		}
+
+		private Node getChild(char c) {
+			if (childChars == null) {
+				return null;
+			}
+			int index = Arrays.binarySearch(childChars, c);
+			return index >= 0 ? childNodes[index] : null;
+		}
+
+	}
+
+}
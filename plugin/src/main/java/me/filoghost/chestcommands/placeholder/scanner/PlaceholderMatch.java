@@ -14,11 +14,13 @@ public class PlaceholderMatch {
 	private final String pluginNamespace;
 	private final String identifier;
 	private final String argument;
+	private final int hashCode; // Computed once, matches are used as map keys
 
 	private PlaceholderMatch(String pluginNamespace, String identifier, String argument) {
 		this.pluginNamespace = pluginNamespace;
 		this.identifier = identifier;
 		this.argument = argument;
+		this.hashCode = Objects.hash(pluginNamespace, identifier, argument);
 	}
 
 	public String getPluginNamespace() {
@@ -78,7 +80,7 @@ public class PlaceholderMatch {
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(pluginNamespace, identifier, argument);
+		return hashCode;
 	}
 
 }
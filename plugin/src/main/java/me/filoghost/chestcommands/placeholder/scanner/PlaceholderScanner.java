@@ -38,6 +38,13 @@ public class PlaceholderScanner {
 		return matchFound.get();
 	}
 
+	/**
+	 * Calls the action for each placeholder, also passing its position (end index is exclusive).
+	 */
+	public void forEachWithIndexes(IndexedMatchConsumer action) {
+		scan(match -> action.accept(match, placeholderStartIndex, index + 1));
+	}
+
 	public String replace(Function<PlaceholderMatch, String> replaceFunction) {
 		StringBuilder output = new StringBuilder();
 
@@ -77,7 +84,7 @@ public class PlaceholderScanner {
 					// If the placeholder is "{player}" then the identifier is "player"
 					String placeholderContent = input.substring(placeholderStartIndex + 1, index); // Skip the opening tag
 					matchCallback.accept(PlaceholderMatch.parse(placeholderContent));
-					if (!stopExecution) {
+					if (stopExecution) {
 						return;
 					}
 
@@ -99,4 +106,12 @@ public class PlaceholderScanner {
 		}
 	}
 
+
+	@FunctionalInterface
+	public interface IndexedMatchConsumer {
+
+		void accept(PlaceholderMatch match, int startIndex, int endIndex);
+
+	}
+
 }
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.task;
+
+import me.filoghost.chestcommands.config.Settings;
+import me.filoghost.chestcommands.icon.skull.SkullProfileCache;
+import me.filoghost.chestcommands.inventory.DefaultMenuView;
+import me.filoghost.chestcommands.menu.InternalMenu;
+import me.filoghost.chestcommands.menu.MenuManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/*
+ * Timing wheel of the open menu views that need a periodic refresh.
+ * Each view is placed in the bucket of the tick when it's due, so that every tick only touches the views in one bucket.
+ * Views that are due more than one full rotation later stay in their bucket until their tick is reached.
+ *
+ * Views are given a phase offset when scheduled (round-robin), so that views with the same refresh period
+ * don't all refresh on the same tick.
+ *
+ * The time spent refreshing in each tick is limited by a configurable budget: when it's used up, the remaining
+ * due views are deferred to the next tick, where they are served before the views that become due.
+ * Views that displayed placeholder heads are refreshed, within the same budget, when skull profiles become ready.
+ */
+public class MenuRefreshScheduler {
+
+	private static final int WHEEL_SIZE = 64; // Must be a power of two
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+	private final List<ScheduledRefresh>[] buckets;
+	private final Map<DefaultMenuView, ScheduledRefresh> scheduledRefreshes;
+	private final Queue<ScheduledRefresh> deferredRefreshes;
+	private final Queue<DefaultMenuView> loadingSkullRefreshes;
+	private int skullProfileVersion;
+	private final RefreshHistogram refreshHistogram;
+	private long currentTick;
+	private long totalDeferredRefreshes;
+	private int nextPhase;
+
+	@SuppressWarnings("unchecked")
+	public MenuRefreshScheduler() {
+		this.buckets = new List[WHEEL_SIZE];
+		for (int i = 0; i < WHEEL_SIZE; i++) {
+			buckets[i] = new ArrayList<>();
+		}
+		this.scheduledRefreshes = new HashMap<>();
+		this.deferredRefreshes = new ArrayDeque<>();
+		this.loadingSkullRefreshes = new ArrayDeque<>();
+		this.refreshHistogram = new RefreshHistogram();
+	}
+
+	public void schedule(DefaultMenuView menuView) {
+		if (!(menuView.getMenu() instanceof InternalMenu)) {
+			return;
+		}
+
+		int refreshTicks = ((InternalMenu) menuView.getMenu()).getRefreshTicks();
+		if (refreshTicks <= 0) {
+			return;
+		}
+
+		cancel(menuView);
+
+		// The view was just rendered, the first refresh happens within the next period
+		int phase = nextPhase % refreshTicks;
+		nextPhase = (nextPhase + 1) & Integer.MAX_VALUE;
+		ScheduledRefresh scheduledRefresh = new ScheduledRefresh(menuView, refreshTicks, currentTick + 1 + phase);
+		scheduledRefreshes.put(menuView, scheduledRefresh);
+		addToBucket(scheduledRefresh);
+	}
+
+	public void cancel(DefaultMenuView menuView) {
+		ScheduledRefresh scheduledRefresh = scheduledRefreshes.remove(menuView);
+		if (scheduledRefresh != null) {
+			// Removed lazily from its bucket, when the bucket is processed
+			scheduledRefresh.cancelled = true;
+		}
+	}
+
+	public void tick() {
+		currentTick++;
+		long budgetNanos = Settings.refresh_tick_budget_nanos;
+		long startNanos = budgetNanos > 0 ? System.nanoTime() : 0;
+		int refreshes = 0;
+
+		// Views deferred by the previous ticks are served first
+		while (!deferredRefreshes.isEmpty()) {
+			if (refreshes > 0 && isBudgetExceeded(startNanos, budgetNanos)) {
+				break;
+			}
+
+			ScheduledRefresh scheduledRefresh = deferredRefreshes.poll();
+			if (!scheduledRefresh.cancelled) {
+				refresh(scheduledRefresh);
+				refreshes++;
+			}
+		}
+
+		// Views displaying placeholder heads are refreshed when some skull profiles become ready
+		if (skullProfileVersion != SkullProfileCache.getVersion()) {
+			skullProfileVersion = SkullProfileCache.getVersion();
+			loadingSkullRefreshes.addAll(SkullProfileCache.pollWaitingViews());
+		}
+
+		while (!loadingSkullRefreshes.isEmpty()) {
+			if (refreshes > 0 && isBudgetExceeded(startNanos, budgetNanos)) {
+				break;
+			}
+
+			DefaultMenuView menuView = loadingSkullRefreshes.poll();
+			if (MenuManager.getOpenMenuView(menuView.getViewer()) == menuView) {
+				menuView.refreshLoadingSkulls();
+				refreshes++;
+			}
+		}
+
+		List<ScheduledRefresh> bucket = buckets[bucketIndex(currentTick)];
+		int i = 0;
+		while (i < bucket.size()) {
+			ScheduledRefresh scheduledRefresh = bucket.get(i);
+
+			if (scheduledRefresh.cancelled) {
+				removeFromBucket(bucket, i);
+			} else if (scheduledRefresh.nextRefreshTick <= currentTick) {
+				removeFromBucket(bucket, i);
+
+				// At least one view is always refreshed, so that deferred views are eventually served
+				if (refreshes > 0 && isBudgetExceeded(startNanos, budgetNanos)) {
+					deferredRefreshes.add(scheduledRefresh);
+					scheduledRefresh.deferredCount++;
+					totalDeferredRefreshes++;
+				} else {
+					refresh(scheduledRefresh);
+					refreshes++;
+				}
+			} else {
+				// Due in a later rotation of the wheel
+				i++;
+			}
+		}
+
+		refreshHistogram.record(refreshes);
+	}
+
+	private void refresh(ScheduledRefresh scheduledRefresh) {
+		scheduledRefresh.lagTicks = currentTick - scheduledRefresh.nextRefreshTick;
+		scheduledRefresh.menuView.refresh();
+
+		// The refresh may close the view, cancelling it
+		if (!scheduledRefresh.cancelled) {
+			// Keep the same phase, skipping the refreshes missed while deferred
+			do {
+				scheduledRefresh.nextRefreshTick += scheduledRefresh.refreshTicks;
+			} while (scheduledRefresh.nextRefreshTick <= currentTick);
+
+			addToBucket(scheduledRefresh);
+		}
+	}
+
+	private static boolean isBudgetExceeded(long startNanos, long budgetNanos) {
+		return budgetNanos > 0 && System.nanoTime() - startNanos >= budgetNanos;
+	}
+
+	public int getScheduledCount() {
+		return scheduledRefreshes.size();
+	}
+
+	public RefreshHistogram getRefreshHistogram() {
+		return refreshHistogram;
+	}
+
+	public int getDeferredCount() {
+		return deferredRefreshes.size();
+	}
+
+	public long getTotalDeferredRefreshes() {
+		return totalDeferredRefreshes;
+	}
+
+	public Collection<ScheduledRefresh> getScheduledRefreshes() {
+		return Collections.unmodifiableCollection(scheduledRefreshes.values());
+	}
+
+	public void resetStatistics() {
+		refreshHistogram.reset();
+		totalDeferredRefreshes = 0;
+		for (ScheduledRefresh scheduledRefresh : scheduledRefreshes.values()) {
+			scheduledRefresh.lagTicks = 0;
+			scheduledRefresh.deferredCount = 0;
+		}
+	}
+
+	private void addToBucket(ScheduledRefresh scheduledRefresh) {
+		buckets[bucketIndex(scheduledRefresh.nextRefreshTick)].add(scheduledRefresh);
+	}
+
+	private static void removeFromBucket(List<ScheduledRefresh> bucket, int index) {
+		// Order inside a bucket doesn't matter, swap with the last element to avoid shifting
+		int lastIndex = bucket.size() - 1;
+		bucket.set(index, bucket.get(lastIndex));
+		bucket.remove(lastIndex);
+	}
+
+	private static int bucketIndex(long tick) {
+		return (int) (tick & WHEEL_MASK);
+	}
+
+
+	public static class ScheduledRefresh {
+
+		private final DefaultMenuView menuView;
+		private final int refreshTicks;
+		private long nextRefreshTick;
+		private boolean cancelled;
+		private long lagTicks;
+		private int deferredCount;
+
+		private ScheduledRefresh(DefaultMenuView menuView, int refreshTicks, long nextRefreshTick) {
+			this.menuView = menuView;
+			this.refreshTicks = refreshTicks;
+			this.nextRefreshTick = nextRefreshTick;
+		}
+
+		public DefaultMenuView getMenuView() {
+			return menuView;
+		}
+
+		/**
+		 * Returns how many ticks late the last refresh was executed, because of the time budget.
+		 */
+		public long getLagTicks() {
+			return lagTicks;
+		}
+
+		public int getDeferredCount() {
+			return deferredCount;
+		}
+
+	}
+
+}
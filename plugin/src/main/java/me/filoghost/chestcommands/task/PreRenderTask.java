@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.task;
+
+import me.filoghost.chestcommands.api.Icon;
+import me.filoghost.chestcommands.config.Settings;
+import me.filoghost.chestcommands.icon.BaseConfigurableIcon;
+import me.filoghost.chestcommands.menu.BaseMenu;
+import me.filoghost.commons.logging.Log;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Renders the cacheable icons of the loaded menus in advance, so that the first viewers don't pay the render cost.
+ * The work is spread across ticks, limited by a time budget for each tick, to avoid a lag spike after loading.
+ */
+public class PreRenderTask implements Runnable {
+
+	private static final int PROGRESS_LOG_INTERVAL_TICKS = 100;
+
+	private final Queue<BaseConfigurableIcon> pendingIcons;
+	private final int totalIcons;
+	private BukkitTask bukkitTask;
+	private int renderedIcons;
+	private int elapsedTicks;
+	private long renderNanos;
+	private long startMillis;
+
+	public PreRenderTask(Collection<? extends BaseMenu> menus) {
+		this.pendingIcons = new ArrayDeque<>();
+		for (BaseMenu menu : menus) {
+			for (int i = 0; i < menu.getIcons().getSize(); i++) {
+				Icon icon = menu.getIcons().getByIndex(i);
+				if (icon instanceof BaseConfigurableIcon) {
+					pendingIcons.add((BaseConfigurableIcon) icon);
+				}
+			}
+		}
+		this.totalIcons = pendingIcons.size();
+	}
+
+	public void start(Plugin plugin) {
+		if (pendingIcons.isEmpty()) {
+			return;
+		}
+
+		startMillis = System.currentTimeMillis();
+		bukkitTask = Bukkit.getScheduler().runTaskTimer(plugin, this, 1L, 1L);
+	}
+
+	public void cancel() {
+		if (bukkitTask != null) {
+			bukkitTask.cancel();
+			bukkitTask = null;
+		}
+	}
+
+	@Override
+	public void run() {
+		elapsedTicks++;
+		long budgetNanos = Settings.prerender_tick_budget_nanos;
+		long tickStartNanos = System.nanoTime();
+
+		// At least one icon is always rendered, so that the task eventually ends
+		do {
+			BaseConfigurableIcon icon = pendingIcons.poll();
+			if (icon == null) {
+				break;
+			}
+
+			// Only the cacheable icons are rendered, without checking permissions as there is no viewer
+			if (icon.preRender()) {
+				renderedIcons++;
+			}
+		} while (budgetNanos <= 0 || System.nanoTime() - tickStartNanos < budgetNanos);
+
+		renderNanos += System.nanoTime() - tickStartNanos;
+
+		if (pendingIcons.isEmpty()) {
+			cancel();
+			Log.info("Pre-rendered " + renderedIcons + " cacheable icons of " + totalIcons + " in "
+					+ TimeUnit.NANOSECONDS.toMillis(renderNanos) + " ms of rendering, over " + elapsedTicks + " ticks ("
+					+ (System.currentTimeMillis() - startMillis) + " ms).");
+		} else if (elapsedTicks % PROGRESS_LOG_INTERVAL_TICKS == 0) {
+			Log.info("Pre-rendering icons: " + (totalIcons - pendingIcons.size()) + "/" + totalIcons + " done.");
+		}
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) filoghost and contributors
+ *
+ * SPDX-License-Identifier: GPL-3.0-or-later
+ */
+package me.filoghost.chestcommands.task;
+
+import java.util.Arrays;
+
+/*
+ * Number of menu view refreshes executed in each of the last ticks.
+ * The distribution uses power of two buckets: 0, 1, 2-3, 4-7, 8-15, ...
+ */
+public class RefreshHistogram {
+
+	private static final int WINDOW_TICKS = 100;
+	private static final int BUCKETS = 8;
+
+	private final int[] refreshesPerTick;
+	private int nextIndex;
+	private int recordedTicks;
+
+	public RefreshHistogram() {
+		this.refreshesPerTick = new int[WINDOW_TICKS];
+	}
+
+	public void record(int refreshes) {
+		refreshesPerTick[nextIndex] = refreshes;
+		nextIndex = (nextIndex + 1) % WINDOW_TICKS;
+		if (recordedTicks < WINDOW_TICKS) {
+			recordedTicks++;
+		}
+	}
+
+	public int getRecordedTicks() {
+		return recordedTicks;
+	}
+
+	public int getMax() {
+		int max = 0;
+		for (int i = 0; i < recordedTicks; i++) {
+			max = Math.max(max, refreshesPerTick[i]);
+		}
+		return max;
+	}
+
+	public double getAverage() {
+		if (recordedTicks == 0) {
+			return 0;
+		}
+
+		long total = 0;
+		for (int i = 0; i < recordedTicks; i++) {
+			total += refreshesPerTick[i];
+		}
+		return (double) total / recordedTicks;
+	}
+
+	/**
+	 * Returns how many ticks fall in each bucket, the last bucket includes all the higher values.
+	 */
+	public int[] getDistribution() {
+		int[] distribution = new int[BUCKETS];
+		for (int i = 0; i < recordedTicks; i++) {
+			distribution[bucketIndex(refreshesPerTick[i])]++;
+		}
+		return distribution;
+	}
+
+	public static String getBucketLabel(int bucketIndex) {
+		if (bucketIndex == 0) {
+			return "0";
+		}
+
+		int min = 1 << (bucketIndex - 1);
+		if (bucketIndex == BUCKETS - 1) {
+			return min + "+";
+		}
+
+		int max = (1 << bucketIndex) - 1;
+		return min == max ? String.valueOf(min) : min + "-" + max;
+	}
+
+	private static int bucketIndex(int refreshes) {
+		if (refreshes == 0) {
+			return 0;
+		}
+		int bucketIndex = 32 - Integer.numberOfLeadingZeros(refreshes); // 1 -> 1, 2-3 -> 2, 4-7 -> 3, ...
+		return Math.min(bucketIndex, BUCKETS - 1);
+	}
+
+	public void reset() {
+		Arrays.fill(refreshesPerTick, 0);
+		nextIndex = 0;
+		recordedTicks = 0;
+	}
+
+}